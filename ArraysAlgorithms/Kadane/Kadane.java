@@ -72,24 +72,8 @@ public class Kadane {
       * Maximum Circular Subarray Sum
       */
      public static int maxCircularSubArraySum(int[] arr) {
-          // max sum of normal subarray
-          int maxSum = kadane(arr);
-          // if all the numbers negetive then return maxSum
-          if (maxSum < 0)
-               return maxSum;
-          // invert the array
-          int[] invertedArray = new int[arr.length];
-          for (int i = 0; i < arr.length; i++) {
-               invertedArray[i] = -arr[i];
-          }
-          // find max subarry sum of inverted Array
-          int maxInvertedSum = kadane(invertedArray);
-          // Add the sum of original array to get circular sum
-          int totalSum = 0;
-          for (int num : arr)
-               totalSum += num;
-          int maxCircularSum = totalSum + maxInvertedSum;
-          return Math.max(maxSum, maxCircularSum);
+          // max, min and total in one pass, no inverted copy (see SubarraySummary)
+          return Math.toIntExact(SubarraySummary.of(arr).circularMax());
      }
 
      public static void main(String[] args) {
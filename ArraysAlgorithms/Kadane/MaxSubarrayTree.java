@@ -0,0 +1,146 @@
+package Kadane;
+
+import java.util.Arrays;
+
+/*
+ * Maximum subarray sum of a series that changes in place.
+ *
+ * A segment tree keeps one Kadane summary per node (total, best prefix,
+ * best suffix, best subarray) in four flat long[] arrays: node 1 is the
+ * root, node i has children 2i and 2i+1, and the leaves start at capacity.
+ * Changing a value recomputes the O(log n) summaries above it, and the best
+ * subarray inside any [l, r] is combined from O(log n) nodes.
+ *
+ * Unused leaves hold the empty summary, whose best values are NONE, so
+ * append() only has to rebuild the tree when the capacity doubles.
+ */
+public class MaxSubarrayTree {
+     // stands in for minus infinity; far enough from Long.MIN_VALUE that adding two never overflows
+     static final long NONE = Long.MIN_VALUE / 4;
+
+     private int size;
+     private int capacity;
+     private long total[], prefix[], suffix[], best[];
+
+     public MaxSubarrayTree() {
+          this(new int[0]);
+     }
+
+     public MaxSubarrayTree(int[] values) {
+          size = values.length;
+          capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+          allocate();
+          for (int i = 0; i < size; i++) {
+               setLeaf(capacity + i, values[i]);
+          }
+          for (int node = capacity - 1; node >= 1; node--) {
+               pull(node);
+          }
+     }
+
+     public int size() {
+          return size;
+     }
+
+     public int get(int index) {
+          checkIndex(index);
+          return (int) total[capacity + index];
+     }
+
+     public void set(int index, int value) {
+          checkIndex(index);
+          int node = capacity + index;
+          setLeaf(node, value);
+          for (node >>= 1; node >= 1; node >>= 1) {
+               pull(node);
+          }
+     }
+
+     public void append(int value) {
+          if (size == capacity) {
+               grow();
+          }
+          size++;
+          set(size - 1, value);
+     }
+
+     // best sum of a non-empty subarray of the whole series
+     public long maxSubarraySum() {
+          if (size == 0) {
+               throw new IllegalStateException("empty series");
+          }
+          return best[1];
+     }
+
+     // best sum of a non-empty subarray inside [l, r], both inclusive
+     public long maxSubarraySum(int l, int r) {
+          if (l < 0 || r >= size || l > r) {
+               throw new IndexOutOfBoundsException("range [" + l + ", " + r + "] in a series of " + size);
+          }
+          // summaries of the covered nodes left of the split and right of it, both starting empty
+          long lt = 0, lp = NONE, ls = NONE, lb = NONE;
+          long rt = 0, rp = NONE, rs = NONE, rb = NONE;
+          for (int lo = l + capacity, hi = r + capacity + 1; lo < hi; lo >>= 1, hi >>= 1) {
+               if ((lo & 1) == 1) {
+                    lb = Math.max(Math.max(lb, best[lo]), ls + prefix[lo]);
+                    lp = Math.max(lp, lt + prefix[lo]);
+                    ls = Math.max(suffix[lo], total[lo] + ls);
+                    lt += total[lo];
+                    lo++;
+               }
+               if ((hi & 1) == 1) {
+                    hi--;
+                    rb = Math.max(Math.max(best[hi], rb), suffix[hi] + rp);
+                    rs = Math.max(rs, rt + suffix[hi]);
+                    rp = Math.max(prefix[hi], total[hi] + rp);
+                    rt += total[hi];
+               }
+          }
+          return Math.max(Math.max(lb, rb), ls + rp);
+     }
+
+     void setLeaf(int node, int value) {
+          total[node] = value;
+          prefix[node] = value;
+          suffix[node] = value;
+          best[node] = value;
+     }
+
+     // node's summary from its two children
+     void pull(int node) {
+          int l = 2 * node, r = l + 1;
+          total[node] = total[l] + total[r];
+          prefix[node] = Math.max(prefix[l], total[l] + prefix[r]);
+          suffix[node] = Math.max(suffix[r], total[r] + suffix[l]);
+          best[node] = Math.max(Math.max(best[l], best[r]), suffix[l] + prefix[r]);
+     }
+
+     void grow() {
+          long oldTotal[] = total;
+          int oldCapacity = capacity;
+          capacity <<= 1;
+          allocate();
+          for (int i = 0; i < size; i++) {
+               setLeaf(capacity + i, (int) oldTotal[oldCapacity + i]);
+          }
+          for (int node = capacity - 1; node >= 1; node--) {
+               pull(node);
+          }
+     }
+
+     void allocate() {
+          total = new long[2 * capacity];
+          prefix = new long[2 * capacity];
+          suffix = new long[2 * capacity];
+          best = new long[2 * capacity];
+          Arrays.fill(prefix, NONE);
+          Arrays.fill(suffix, NONE);
+          Arrays.fill(best, NONE);
+     }
+
+     void checkIndex(int index) {
+          if (index < 0 || index >= size) {
+               throw new IndexOutOfBoundsException("index " + index + " in a series of " + size);
+          }
+     }
+}
@@ -0,0 +1,53 @@
+package Kadane;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Divide-and-conquer Kadane. The array is split in halves until a range is
+ * at most parallelThreshold long; each range is scanned once into a
+ * SubarraySummary and the summaries are combined on the way back up. The
+ * result holds the maximum, minimum and circular maximum subarray with
+ * their indices, from one pass and without a copy of the array.
+ */
+public class ParallelKadane {
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+     public static SubarraySummary summarize(int[] arr) {
+          return parallelSummarize(arr, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+     }
+
+     public static SubarraySummary parallelSummarize(int[] arr, int parallelThreshold, ForkJoinPool pool) {
+          if (parallelThreshold < 1) {
+               throw new IllegalArgumentException("threshold must be positive");
+          }
+          if (arr.length <= parallelThreshold)
+               return SubarraySummary.of(arr);
+          return pool.invoke(new SummaryTask(arr, 0, arr.length, parallelThreshold));
+     }
+
+     static final class SummaryTask extends RecursiveTask<SubarraySummary> {
+          private static final long serialVersionUID = 1L;
+
+          final int arr[];
+          final int from, to, parallelThreshold;
+
+          SummaryTask(int arr[], int from, int to, int parallelThreshold) {
+               this.arr = arr;
+               this.from = from;
+               this.to = to;
+               this.parallelThreshold = parallelThreshold;
+          }
+
+          @Override
+          protected SubarraySummary compute() {
+               if (to - from <= parallelThreshold)
+                    return SubarraySummary.of(arr, from, to);
+               int mid = (from + to) >>> 1;
+               SummaryTask left = new SummaryTask(arr, from, mid, parallelThreshold);
+               left.fork();
+               SubarraySummary right = new SummaryTask(arr, mid, to, parallelThreshold).compute();
+               return SubarraySummary.combine(left.join(), right);
+          }
+     }
+}
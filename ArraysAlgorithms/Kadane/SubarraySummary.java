@@ -0,0 +1,183 @@
+package Kadane;
+
+/*
+ * Everything Kadane's algorithm needs to know about a segment arr[from, to)
+ * to be combined with its neighbours: the total, the best prefix, the best
+ * suffix and the best subarray, each for the maximum and the minimum, with
+ * their indices. combine() is associative, so a long array can be split
+ * into chunks, each chunk scanned on its own, and the summaries reduced in
+ * any grouping (see ParallelKadane).
+ *
+ * Sums are longs, so no int input can overflow them. Ties keep the
+ * leftmost subarray.
+ */
+public final class SubarraySummary {
+     public final int from, to;
+     public final long total;
+
+     public final long maxPrefix, maxSuffix, max;
+     public final int maxPrefixEnd, maxSuffixStart, maxStart, maxEnd;
+
+     public final long minPrefix, minSuffix, min;
+     public final int minPrefixEnd, minSuffixStart, minStart, minEnd;
+
+     SubarraySummary(int from, int to, long total,
+               long maxPrefix, int maxPrefixEnd, long maxSuffix, int maxSuffixStart, long max, int maxStart, int maxEnd,
+               long minPrefix, int minPrefixEnd, long minSuffix, int minSuffixStart, long min, int minStart, int minEnd) {
+          this.from = from;
+          this.to = to;
+          this.total = total;
+          this.maxPrefix = maxPrefix;
+          this.maxPrefixEnd = maxPrefixEnd;
+          this.maxSuffix = maxSuffix;
+          this.maxSuffixStart = maxSuffixStart;
+          this.max = max;
+          this.maxStart = maxStart;
+          this.maxEnd = maxEnd;
+          this.minPrefix = minPrefix;
+          this.minPrefixEnd = minPrefixEnd;
+          this.minSuffix = minSuffix;
+          this.minSuffixStart = minSuffixStart;
+          this.min = min;
+          this.minStart = minStart;
+          this.minEnd = minEnd;
+     }
+
+     public static SubarraySummary of(int[] arr) {
+          return of(arr, 0, arr.length);
+     }
+
+     // one pass over arr[from, to), which must not be empty
+     public static SubarraySummary of(int[] arr, int from, int to) {
+          if (from < 0 || to > arr.length || from >= to) {
+               throw new IllegalArgumentException("empty or invalid range [" + from + ", " + to + ")");
+          }
+          long first = arr[from];
+          long total = first;
+          long maxPrefix = first, minPrefix = first;
+          int maxPrefixEnd = from, minPrefixEnd = from;
+          // best subarrays ending at i, and where they start
+          long maxHere = first, minHere = first;
+          int maxHereStart = from, minHereStart = from;
+          long max = first, min = first;
+          int maxStart = from, maxEnd = from, minStart = from, minEnd = from;
+          for (int i = from + 1; i < to; i++) {
+               long v = arr[i];
+               total += v;
+               if (total > maxPrefix) {
+                    maxPrefix = total;
+                    maxPrefixEnd = i;
+               } else if (total < minPrefix) {
+                    minPrefix = total;
+                    minPrefixEnd = i;
+               }
+               if (maxHere < 0) {
+                    maxHere = v;
+                    maxHereStart = i;
+               } else {
+                    maxHere += v;
+               }
+               if (minHere > 0) {
+                    minHere = v;
+                    minHereStart = i;
+               } else {
+                    minHere += v;
+               }
+               if (maxHere > max) {
+                    max = maxHere;
+                    maxStart = maxHereStart;
+                    maxEnd = i;
+               }
+               if (minHere < min) {
+                    min = minHere;
+                    minStart = minHereStart;
+                    minEnd = i;
+               }
+          }
+          // the best subarrays ending at the last element are the best suffixes
+          return new SubarraySummary(from, to, total,
+                    maxPrefix, maxPrefixEnd, maxHere, maxHereStart, max, maxStart, maxEnd,
+                    minPrefix, minPrefixEnd, minHere, minHereStart, min, minStart, minEnd);
+     }
+
+     // summary of l's segment followed directly by r's
+     public static SubarraySummary combine(SubarraySummary l, SubarraySummary r) {
+          if (l.to != r.from) {
+               throw new IllegalArgumentException("segments are not adjacent");
+          }
+          long maxPrefix = l.maxPrefix;
+          int maxPrefixEnd = l.maxPrefixEnd;
+          if (l.total + r.maxPrefix > maxPrefix) {
+               maxPrefix = l.total + r.maxPrefix;
+               maxPrefixEnd = r.maxPrefixEnd;
+          }
+          long minPrefix = l.minPrefix;
+          int minPrefixEnd = l.minPrefixEnd;
+          if (l.total + r.minPrefix < minPrefix) {
+               minPrefix = l.total + r.minPrefix;
+               minPrefixEnd = r.minPrefixEnd;
+          }
+          long maxSuffix = r.maxSuffix;
+          int maxSuffixStart = r.maxSuffixStart;
+          if (l.maxSuffix + r.total >= maxSuffix) {
+               maxSuffix = l.maxSuffix + r.total;
+               maxSuffixStart = l.maxSuffixStart;
+          }
+          long minSuffix = r.minSuffix;
+          int minSuffixStart = r.minSuffixStart;
+          if (l.minSuffix + r.total <= minSuffix) {
+               minSuffix = l.minSuffix + r.total;
+               minSuffixStart = l.minSuffixStart;
+          }
+          long max = l.max;
+          int maxStart = l.maxStart, maxEnd = l.maxEnd;
+          if (l.maxSuffix + r.maxPrefix > max) {
+               max = l.maxSuffix + r.maxPrefix;
+               maxStart = l.maxSuffixStart;
+               maxEnd = r.maxPrefixEnd;
+          }
+          if (r.max > max) {
+               max = r.max;
+               maxStart = r.maxStart;
+               maxEnd = r.maxEnd;
+          }
+          long min = l.min;
+          int minStart = l.minStart, minEnd = l.minEnd;
+          if (l.minSuffix + r.minPrefix < min) {
+               min = l.minSuffix + r.minPrefix;
+               minStart = l.minSuffixStart;
+               minEnd = r.minPrefixEnd;
+          }
+          if (r.min < min) {
+               min = r.min;
+               minStart = r.minStart;
+               minEnd = r.minEnd;
+          }
+          return new SubarraySummary(l.from, r.to, l.total + r.total,
+                    maxPrefix, maxPrefixEnd, maxSuffix, maxSuffixStart, max, maxStart, maxEnd,
+                    minPrefix, minPrefixEnd, minSuffix, minSuffixStart, min, minStart, minEnd);
+     }
+
+     /*
+      * Maximum sum of a subarray that may wrap around the end of the
+      * segment: the total minus the minimum subarray, unless that would
+      * leave nothing (the minimum is the whole segment) or the plain
+      * maximum is larger.
+      */
+     public long circularMax() {
+          return wraps() ? total - min : max;
+     }
+
+     // first index of the circular maximum; past the end it continues at from
+     public int circularStart() {
+          return wraps() ? (minEnd + 1 == to ? from : minEnd + 1) : maxStart;
+     }
+
+     public int circularEnd() {
+          return wraps() ? (minStart == from ? to - 1 : minStart - 1) : maxEnd;
+     }
+
+     boolean wraps() {
+          return !(minStart == from && minEnd == to - 1) && total - min > max;
+     }
+}
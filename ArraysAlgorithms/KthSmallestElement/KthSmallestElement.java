@@ -1,63 +1,199 @@
 package KthSmallestElement;
 
-import java.util.PriorityQueue;
-
 public class KthSmallestElement {
+     private final QuickSelect quickSelect = new QuickSelect();
+
      // Solution for Problem 1: Kth Smallest Element in an Unsorted Array using
-     // QuickSelect
+     // introselect (see QuickSelect); reorders arr
      public int findKthSmallest(int[] arr, int k) {
-          if (arr == null || k < 1 || k > arr.length) {
-               throw new IllegalArgumentException("Invalid input");
-          }
-          return quickSelect(arr, 0, arr.length - 1, k - 1);
+          return quickSelect.select(arr, k, true);
      }
 
-     private int quickSelect(int[] arr, int left, int right, int k) {
-          if (left == right) {
-               return arr[left];
+     // inPlace = false selects on a scratch copy and leaves arr untouched
+     public int findKthSmallest(int[] arr, int k, boolean inPlace) {
+          return quickSelect.select(arr, k, inPlace);
+     }
+
+     // the ks[i]-th smallest for every i (e.g. p50/p90/p99/p999) in one partitioning pass; reorders arr
+     public int[] selectMany(int[] arr, int[] ks) {
+          return quickSelect.selectMany(arr, ks, true);
+     }
+
+     public int[] selectMany(int[] arr, int[] ks, boolean inPlace) {
+          return quickSelect.selectMany(arr, ks, inPlace);
+     }
+
+     // Solution for Problem 2: Kth Smallest Element in a Sorted Matrix.
+     // Rows and columns are sorted ascending; the matrix may be rectangular.
+     // Small k walks the frontier of row (or column) heads, otherwise the
+     // value range is binary searched.
+     public int kthSmallestInMatrix(int[][] matrix, int k) {
+          checkMatrix(matrix, k);
+          int rows = matrix.length, cols = matrix[0].length;
+          int frontier = Math.min(Math.min(rows, cols), k);
+          // k heap steps of log(frontier) against ~32 counts of the value-range search
+          if ((long) k * log2(frontier) <= 32 * countCost(rows, cols))
+               return kthSmallestByFrontier(matrix, k);
+          return kthSmallestByValueRange(matrix, k);
+     }
+
+     /*
+      * Binary search for the smallest value v with at least k elements <= v.
+      * Each count walks a staircase from the bottom-left corner in
+      * O(rows + cols), or binary searches every line of the shorter side
+      * when the matrix is much wider than tall (or the other way round).
+      * Total: O(min(rows + cols, s log l) log(max - min)) for the shorter
+      * side s and longer side l, and no extra memory.
+      */
+     public int kthSmallestByValueRange(int[][] matrix, int k) {
+          checkMatrix(matrix, k);
+          int rows = matrix.length, cols = matrix[0].length;
+          boolean searchLines = countCost(rows, cols) < rows + cols;
+          long lo = matrix[0][0], hi = matrix[rows - 1][cols - 1];
+          while (lo < hi) {
+               long mid = (lo + hi) >> 1;
+               long count = !searchLines ? countAtMost(matrix, mid, k)
+                         : rows <= cols ? countAtMostByRows(matrix, mid, k) : countAtMostByColumns(matrix, mid, k);
+               if (count >= k)
+                    hi = mid;
+               else
+                    lo = mid + 1;
           }
-          int pivotIndex = partition(arr, left, right);
-          if (k == pivotIndex) {
-               return arr[k];
-          } else if (k < pivotIndex) {
-               return quickSelect(arr, left, pivotIndex - 1, k);
-          } else {
-               return quickSelect(arr, pivotIndex + 1, right, k);
+          return (int) lo;
+     }
+
+     // steps of one count: the staircase walk or a binary search per line of the shorter side
+     static long countCost(int rows, int cols) {
+          return Math.min((long) rows + cols, (long) Math.min(rows, cols) * log2(Math.max(rows, cols)));
+     }
+
+     static int log2(int n) {
+          return 32 - Integer.numberOfLeadingZeros(n);
+     }
+
+     // number of elements <= value, stopping early once it reaches limit
+     static long countAtMost(int[][] matrix, long value, int limit) {
+          int row = matrix.length - 1, col = 0, cols = matrix[0].length;
+          long count = 0;
+          while (row >= 0 && col < cols) {
+               if (matrix[row][col] <= value) {
+                    count += row + 1;
+                    if (count >= limit)
+                         return count;
+                    col++;
+               } else {
+                    row--;
+               }
           }
+          return count;
      }
 
-     private int partition(int[] arr, int left, int right) {
-          int pivot = arr[right];
-          int i = left - 1;
-          for (int j = left; j < right; j++) {
-               if (arr[j] <= pivot) {
-                    i++;
-                    swap(arr, i, j);
+     // the same count, one binary search per row; each row's cut is at most the previous one
+     static long countAtMostByRows(int[][] matrix, long value, int limit) {
+          int end = matrix[0].length;
+          long count = 0;
+          for (int[] row : matrix) {
+               int lo = 0, hi = end;
+               while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (row[mid] <= value)
+                         lo = mid + 1;
+                    else
+                         hi = mid;
                }
+               end = lo;
+               if (end == 0)
+                    break;
+               count += end;
+               if (count >= limit)
+                    break;
           }
-          swap(arr, i + 1, right);
-          return i + 1;
+          return count;
      }
 
-     private void swap(int[] arr, int i, int j) {
-          int temp = arr[i];
-          arr[i] = arr[j];
-          arr[j] = temp;
+     static long countAtMostByColumns(int[][] matrix, long value, int limit) {
+          int end = matrix.length;
+          long count = 0;
+          for (int col = 0; col < matrix[0].length; col++) {
+               int lo = 0, hi = end;
+               while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (matrix[mid][col] <= value)
+                         lo = mid + 1;
+                    else
+                         hi = mid;
+               }
+               end = lo;
+               if (end == 0)
+                    break;
+               count += end;
+               if (count >= limit)
+                    break;
+          }
+          return count;
      }
 
-     // Solution for Problem 2: Kth Smallest Element in a Sorted Matrix using
-     // Min-Heap
-     public int kthSmallestInMatrix(int[][] matrix, int k) {
-          int n = matrix.length;
-          PriorityQueue<Integer> minHeap = new PriorityQueue<>();
-          for (int i = 0; i < n; i++) {
-               for (int j = 0; j < n; j++) {
-                    minHeap.offer(matrix[i][j]);
+     /*
+      * k-way merge of the sorted rows (or columns, if there are fewer):
+      * a min-heap holds only the current head of each line, packed into a
+      * long as (value, line), and the popped line advances by one.
+      * O(k log min(rows, cols, k)) time and O(min(rows, cols, k)) memory.
+      */
+     public int kthSmallestByFrontier(int[][] matrix, int k) {
+          checkMatrix(matrix, k);
+          int rows = matrix.length, cols = matrix[0].length;
+          boolean byColumn = cols < rows;
+          int lines = Math.min(byColumn ? cols : rows, k);
+          int length = byColumn ? rows : cols;
+          long heap[] = new long[lines];
+          int next[] = new int[lines];
+          for (int line = 0; line < lines; line++) {
+               heap[line] = pack(byColumn ? matrix[0][line] : matrix[line][0], line);
+               next[line] = 1;
+          }
+          // heads of consecutive lines are ascending, and so are their packed keys: a valid heap
+          int size = lines;
+          for (int step = 1; step < k; step++) {
+               int line = (int) heap[0];
+               int pos = next[line]++;
+               if (pos < length) {
+                    heap[0] = pack(byColumn ? matrix[pos][line] : matrix[line][pos], line);
+               } else {
+                    heap[0] = heap[--size];
                }
+               siftDown(heap, size, 0);
           }
-          for (int i = 0; i < k - 1; i++) {
-               minHeap.poll();
+          return (int) (heap[0] >> 32);
+     }
+
+     // signed value in the high half, line index (never negative) in the low half,
+     // so the longs order by value first and by line among equal values
+     static long pack(int value, int line) {
+          return ((long) value << 32) | line;
+     }
+
+     static void siftDown(long heap[], int size, int i) {
+          long value = heap[i];
+          while (true) {
+               int child = 2 * i + 1;
+               if (child >= size)
+                    break;
+               if (child + 1 < size && heap[child + 1] < heap[child])
+                    child++;
+               if (heap[child] >= value)
+                    break;
+               heap[i] = heap[child];
+               i = child;
+          }
+          heap[i] = value;
+     }
+
+     static void checkMatrix(int[][] matrix, int k) {
+          if (matrix == null || matrix.length == 0 || matrix[0].length == 0) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          if (k < 1 || k > (long) matrix.length * matrix[0].length) {
+               throw new IllegalArgumentException("Invalid input");
           }
-          return minHeap.poll();
      }
 }
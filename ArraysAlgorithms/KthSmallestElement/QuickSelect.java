@@ -1,9 +1,185 @@
 package KthSmallestElement;
 
+import java.util.Arrays;
+
+/*
+ * Introselect: linear-time selection without recursion on the main range.
+ *
+ * - large ranges are narrowed with Floyd-Rivest sampling: a small window
+ *   of the range around k is selected first, which leaves a pivot very
+ *   close to the kth element at index k
+ * - the range is Hoare-partitioned around a[k] and the loop continues on
+ *   the side that holds k
+ * - after BAD_PARTITION_LIMIT partitions that keep more than 3/4 of the
+ *   range, pivots come from median-of-medians instead, which bounds the
+ *   total work at O(n) for any input
+ *
+ * Every selection leaves a[lo..k-1] <= a[k] <= a[k+1..hi], so selecting
+ * several ranks can reuse the partitions of the previous ones.
+ */
 public class QuickSelect {
-     private int quickSelect(int[] arr , int left , int right, int k){
-          if()
-          int pivotIndex=partition(ar, left, right);
-          
+     static final int FLOYD_RIVEST_THRESHOLD = 600;
+     static final int INSERTION_THRESHOLD = 16;
+     static final int BAD_PARTITION_LIMIT = 4;
+
+     // kth smallest (1-based) of arr; reorders arr unless inPlace is false
+     public int select(int[] arr, int k, boolean inPlace) {
+          if (arr == null || k < 1 || k > arr.length) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          int[] a = inPlace ? arr : arr.clone();
+          select(a, 0, a.length - 1, k - 1);
+          return a[k - 1];
+     }
+
+     /*
+      * The ks[i]-th smallest (1-based) for every i, e.g. p50/p90/p99 in one
+      * call. Ranks are selected middle first and each side only searches
+      * the part of the array the previous selection left for it, so m ranks
+      * cost O(n log m) instead of m full selections.
+      */
+     public int[] selectMany(int[] arr, int[] ks, boolean inPlace) {
+          if (arr == null || ks == null) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          int n = arr.length;
+          int[] ranks = new int[ks.length];
+          for (int i = 0; i < ks.length; i++) {
+               if (ks[i] < 1 || ks[i] > n) {
+                    throw new IllegalArgumentException("k = " + ks[i] + " is outside 1.." + n);
+               }
+               ranks[i] = ks[i] - 1;
+          }
+          Arrays.sort(ranks);
+          int[] a = inPlace ? arr : arr.clone();
+          selectRanks(a, 0, n - 1, ranks, 0, ranks.length - 1);
+          int[] result = new int[ks.length];
+          for (int i = 0; i < ks.length; i++) {
+               result[i] = a[ks[i] - 1];
+          }
+          return result;
+     }
+
+     // puts every rank in ranks[from..to] (sorted, all inside [lo, hi]) at its sorted position
+     static void selectRanks(int[] a, int lo, int hi, int[] ranks, int from, int to) {
+          while (from <= to) {
+               int mid = (from + to) >>> 1;
+               int k = ranks[mid];
+               select(a, lo, hi, k);
+               // duplicated ranks are already in place
+               int left = mid - 1, right = mid + 1;
+               while (left >= from && ranks[left] == k)
+                    left--;
+               while (right <= to && ranks[right] == k)
+                    right++;
+               // recurse on the side with fewer ranks, loop on the other
+               if (left - from < to - right) {
+                    selectRanks(a, lo, k - 1, ranks, from, left);
+                    lo = k + 1;
+                    from = right;
+               } else {
+                    selectRanks(a, k + 1, hi, ranks, right, to);
+                    hi = k - 1;
+                    to = left;
+               }
+          }
+     }
+
+     // moves the element of rank k (0-based, lo <= k <= hi) to a[k], partitioning a[lo..hi] around it
+     static void select(int[] a, int lo, int hi, int k) {
+          int bad = 0;
+          while (hi - lo > INSERTION_THRESHOLD) {
+               int size = hi - lo + 1;
+               if (bad >= BAD_PARTITION_LIMIT) {
+                    medianOfMediansToK(a, lo, hi, k);
+               } else if (size > FLOYD_RIVEST_THRESHOLD) {
+                    floydRivestToK(a, lo, hi, k, size);
+               }
+               int j = partitionAtK(a, lo, hi, k);
+               if (j <= k)
+                    lo = j + 1;
+               if (k <= j)
+                    hi = j - 1;
+               if (hi - lo + 1 > size / 4 * 3)
+                    bad++;
+          }
+          if (lo < hi)
+               insertionSort(a, lo, hi);
+     }
+
+     /*
+      * Selects k within a window of about n^(2/3) elements around it, so
+      * a[k] ends up within a few standard deviations of the kth element
+      * of the whole range (Floyd and Rivest, 1975).
+      */
+     static void floydRivestToK(int[] a, int lo, int hi, int k, int n) {
+          int i = k - lo + 1;
+          double z = Math.log(n);
+          double s = 0.5 * Math.exp(2 * z / 3);
+          double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2.0);
+          int windowLo = (int) Math.max(lo, k - i * s / n + sd);
+          int windowHi = (int) Math.min(hi, k + (n - i) * s / n + sd);
+          select(a, windowLo, windowHi, k);
+     }
+
+     // median of the medians of groups of five, moved to a[k]
+     static void medianOfMediansToK(int[] a, int lo, int hi, int k) {
+          int groups = 0;
+          for (int g = lo; g + 4 <= hi; g += 5) {
+               insertionSort(a, g, g + 4);
+               swap(a, lo + groups++, g + 2);
+          }
+          if (groups == 0) {
+               return;
+          }
+          int mid = lo + groups / 2;
+          select(a, lo, lo + groups - 1, mid);
+          swap(a, mid, k);
+     }
+
+     /*
+      * Hoare partition of a[lo..hi] around t = a[k]. Returns j with
+      * a[lo..j-1] <= t, a[j] == t and a[j+1..hi] >= t.
+      */
+     static int partitionAtK(int[] a, int lo, int hi, int k) {
+          int t = a[k];
+          int i = lo, j = hi;
+          swap(a, lo, k);
+          if (a[hi] > t)
+               swap(a, hi, lo);
+          while (i < j) {
+               swap(a, i, j);
+               i++;
+               j--;
+               while (a[i] < t)
+                    i++;
+               while (a[j] > t)
+                    j--;
+          }
+          if (a[lo] == t) {
+               swap(a, lo, j);
+          } else {
+               j++;
+               swap(a, j, hi);
+          }
+          return j;
+     }
+
+     static void insertionSort(int[] a, int lo, int hi) {
+          for (int i = lo + 1; i <= hi; i++) {
+               int key = a[i];
+               int j = i - 1;
+               while (j >= lo && a[j] > key) {
+                    a[j + 1] = a[j];
+                    j--;
+               }
+               a[j + 1] = key;
+          }
+     }
+
+     static void swap(int[] a, int i, int j) {
+          int temp = a[i];
+          a[i] = a[j];
+          a[j] = temp;
      }
 }
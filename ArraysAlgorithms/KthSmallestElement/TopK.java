@@ -0,0 +1,247 @@
+package KthSmallestElement;
+
+import java.util.Arrays;
+
+/*
+ * The k smallest (or largest) values of an unbounded stream.
+ *
+ * Values are kept in a bounded d-ary heap over one long[] of size k that is
+ * allocated up front, so offering values never allocates. The root is the
+ * worst value kept, so a value that would not make the cut is rejected with
+ * one comparison.
+ *
+ * int and long values are stored as is; double values are mapped to longs
+ * with the same order (-0.0 before 0.0, NaN last, as in Arrays.sort). For
+ * LARGEST the stored key is the bitwise complement, so the heap is always
+ * a max-heap of stored keys.
+ *
+ * A TopK is not thread safe. Give every thread its own selector and merge
+ * them when the results are needed.
+ */
+public class TopK {
+     public enum Order {
+          SMALLEST, LARGEST
+     }
+
+     public enum KeyType {
+          INT, LONG, DOUBLE
+     }
+
+     public static final int DEFAULT_ARITY = 4;
+
+     private final int k;
+     private final int arity;
+     private final Order order;
+     private final KeyType keyType;
+     private final long heap[];
+     private int size;
+
+     public TopK(int k, Order order, KeyType keyType) {
+          this(k, order, keyType, DEFAULT_ARITY);
+     }
+
+     public TopK(int k, Order order, KeyType keyType, int arity) {
+          if (k < 1 || arity < 2) {
+               throw new IllegalArgumentException("k must be positive and arity at least 2");
+          }
+          this.k = k;
+          this.arity = arity;
+          this.order = order;
+          this.keyType = keyType;
+          this.heap = new long[k];
+     }
+
+     // a LONG or DOUBLE selector takes an int as a wider value, as Java would convert it
+     public void offer(int value) {
+          if (keyType != KeyType.INT) {
+               offer((long) value);
+               return;
+          }
+          offerKey(order == Order.SMALLEST ? value : ~(long) value);
+     }
+
+     // an INT selector rejects longs: that would be a narrowing conversion
+     public void offer(long value) {
+          if (keyType == KeyType.DOUBLE) {
+               offer((double) value);
+               return;
+          }
+          checkType(KeyType.LONG);
+          offerKey(order == Order.SMALLEST ? value : ~value);
+     }
+
+     public void offer(double value) {
+          checkType(KeyType.DOUBLE);
+          long key = doubleToKey(value);
+          offerKey(order == Order.SMALLEST ? key : ~key);
+     }
+
+     public void offer(int values[], int from, int to) {
+          checkType(KeyType.INT);
+          long flip = order == Order.SMALLEST ? 0 : -1L;
+          for (int i = from; i < to; i++) {
+               long key = values[i] ^ flip;
+               if (size < k || key < heap[0])
+                    offerKey(key);
+          }
+     }
+
+     public void offer(long values[], int from, int to) {
+          checkType(KeyType.LONG);
+          long flip = order == Order.SMALLEST ? 0 : -1L;
+          for (int i = from; i < to; i++) {
+               long key = values[i] ^ flip;
+               if (size < k || key < heap[0])
+                    offerKey(key);
+          }
+     }
+
+     public void offer(double values[], int from, int to) {
+          checkType(KeyType.DOUBLE);
+          long flip = order == Order.SMALLEST ? 0 : -1L;
+          for (int i = from; i < to; i++) {
+               long key = doubleToKey(values[i]) ^ flip;
+               if (size < k || key < heap[0])
+                    offerKey(key);
+          }
+     }
+
+     // adds every value kept by other, which must select the same order and key type
+     public void merge(TopK other) {
+          if (other.order != order || other.keyType != keyType) {
+               throw new IllegalArgumentException("cannot merge a " + other.order + " " + other.keyType
+                         + " selector into a " + order + " " + keyType + " one");
+          }
+          for (int i = 0; i < other.size; i++) {
+               offerKey(other.heap[i]);
+          }
+     }
+
+     public int size() {
+          return size;
+     }
+
+     public int k() {
+          return k;
+     }
+
+     public void clear() {
+          size = 0;
+     }
+
+     // the worst value kept: the kth smallest (or largest) so far once k values were offered
+     public int peekInt() {
+          checkType(KeyType.INT);
+          return (int) fromKey(root());
+     }
+
+     public long peekLong() {
+          checkType(KeyType.LONG);
+          return fromKey(root());
+     }
+
+     public double peekDouble() {
+          checkType(KeyType.DOUBLE);
+          return keyToDouble(fromKey(root()));
+     }
+
+     // the values kept, best first (ascending for SMALLEST, descending for LARGEST)
+     public int[] toIntArray() {
+          checkType(KeyType.INT);
+          long keys[] = sortedKeys();
+          int out[] = new int[size];
+          for (int i = 0; i < size; i++) {
+               out[i] = (int) fromKey(keys[i]);
+          }
+          return out;
+     }
+
+     public long[] toLongArray() {
+          checkType(KeyType.LONG);
+          long keys[] = sortedKeys();
+          for (int i = 0; i < size; i++) {
+               keys[i] = fromKey(keys[i]);
+          }
+          return keys;
+     }
+
+     public double[] toDoubleArray() {
+          checkType(KeyType.DOUBLE);
+          long keys[] = sortedKeys();
+          double out[] = new double[size];
+          for (int i = 0; i < size; i++) {
+               out[i] = keyToDouble(fromKey(keys[i]));
+          }
+          return out;
+     }
+
+     void offerKey(long key) {
+          if (size < k) {
+               siftUp(size++, key);
+          } else if (key < heap[0]) {
+               siftDown(0, key);
+          }
+     }
+
+     void siftUp(int i, long key) {
+          while (i > 0) {
+               int parent = (i - 1) / arity;
+               if (heap[parent] >= key)
+                    break;
+               heap[i] = heap[parent];
+               i = parent;
+          }
+          heap[i] = key;
+     }
+
+     void siftDown(int i, long key) {
+          while (true) {
+               int first = arity * i + 1;
+               if (first >= size)
+                    break;
+               int largest = first;
+               for (int c = first + 1, end = Math.min(first + arity, size); c < end; c++) {
+                    if (heap[c] > heap[largest])
+                         largest = c;
+               }
+               if (heap[largest] <= key)
+                    break;
+               heap[i] = heap[largest];
+               i = largest;
+          }
+          heap[i] = key;
+     }
+
+     long root() {
+          if (size == 0) {
+               throw new IllegalStateException("no values offered");
+          }
+          return heap[0];
+     }
+
+     long[] sortedKeys() {
+          long keys[] = Arrays.copyOf(heap, size);
+          Arrays.sort(keys);
+          return keys;
+     }
+
+     long fromKey(long key) {
+          return order == Order.SMALLEST ? key : ~key;
+     }
+
+     void checkType(KeyType type) {
+          if (keyType != type) {
+               throw new IllegalStateException("selector holds " + keyType + " values, not " + type);
+          }
+     }
+
+     // IEEE-754 bits with the magnitude bits flipped for negative values compare like the doubles
+     static long doubleToKey(double d) {
+          long bits = Double.doubleToLongBits(d);
+          return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+     }
+
+     static double keyToDouble(long key) {
+          return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+     }
+}
@@ -0,0 +1,190 @@
+package MaximumofAllSubarraysofSizeK;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/*
+ * Sliding-window aggregate of any associative operator (max, min, sum,
+ * gcd, ...) by block decomposition (van Herk / Gil-Werman).
+ *
+ * The input is cut into blocks of k. A window starting at offset j > 0 of
+ * block b is the suffix of block b from j, followed by the prefix of block
+ * b + 1 up to j - 1; a window starting at offset 0 is block b itself. So
+ * out[i] = op(suffix(i), prefix(i + k - 1)), about three applications of op
+ * per element whatever k is.
+ *
+ * The suffixes are written straight into out and the prefixes are running
+ * values, so nothing but the output is allocated. Blocks do not depend on
+ * each other, so they are processed in parallel. Unlike a monotonic deque
+ * there is no step-to-step dependency to serialize on.
+ */
+public class BlockWindowAggregator {
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+     private final int parallelThreshold;
+     private final ForkJoinPool pool;
+
+     public BlockWindowAggregator() {
+          this(DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+     }
+
+     // inputs shorter than parallelThreshold are aggregated on the calling thread
+     public BlockWindowAggregator(int parallelThreshold, ForkJoinPool pool) {
+          if (parallelThreshold < 1) {
+               throw new IllegalArgumentException("threshold must be positive");
+          }
+          this.parallelThreshold = parallelThreshold;
+          this.pool = pool;
+     }
+
+     // out[i] = arr[i] op arr[i + 1] op ... op arr[i + k - 1]
+     public int[] slide(int[] arr, int k, IntBinaryOperator op) {
+          int out[] = new int[windows(arr.length, k)];
+          forEachBlockRange(arr.length, k, (from, to) -> {
+               for (int b = from; b < to; b++) {
+                    int start = b * k;
+                    int last = Math.min(start + k - 1, arr.length - k);
+                    int acc = arr[start + k - 1];
+                    if (start + k - 1 <= last)
+                         out[start + k - 1] = acc;
+                    for (int i = start + k - 2; i >= start; i--) {
+                         acc = op.applyAsInt(arr[i], acc);
+                         if (i <= last)
+                              out[i] = acc;
+                    }
+                    int prefix = 0;
+                    for (int i = start + 1; i <= last; i++) {
+                         int v = arr[i + k - 1];
+                         prefix = i == start + 1 ? v : op.applyAsInt(prefix, v);
+                         out[i] = op.applyAsInt(out[i], prefix);
+                    }
+               }
+          });
+          return out;
+     }
+
+     public long[] slide(long[] arr, int k, LongBinaryOperator op) {
+          long out[] = new long[windows(arr.length, k)];
+          forEachBlockRange(arr.length, k, (from, to) -> {
+               for (int b = from; b < to; b++) {
+                    int start = b * k;
+                    int last = Math.min(start + k - 1, arr.length - k);
+                    long acc = arr[start + k - 1];
+                    if (start + k - 1 <= last)
+                         out[start + k - 1] = acc;
+                    for (int i = start + k - 2; i >= start; i--) {
+                         acc = op.applyAsLong(arr[i], acc);
+                         if (i <= last)
+                              out[i] = acc;
+                    }
+                    long prefix = 0;
+                    for (int i = start + 1; i <= last; i++) {
+                         long v = arr[i + k - 1];
+                         prefix = i == start + 1 ? v : op.applyAsLong(prefix, v);
+                         out[i] = op.applyAsLong(out[i], prefix);
+                    }
+               }
+          });
+          return out;
+     }
+
+     public double[] slide(double[] arr, int k, DoubleBinaryOperator op) {
+          double out[] = new double[windows(arr.length, k)];
+          forEachBlockRange(arr.length, k, (from, to) -> {
+               for (int b = from; b < to; b++) {
+                    int start = b * k;
+                    int last = Math.min(start + k - 1, arr.length - k);
+                    double acc = arr[start + k - 1];
+                    if (start + k - 1 <= last)
+                         out[start + k - 1] = acc;
+                    for (int i = start + k - 2; i >= start; i--) {
+                         acc = op.applyAsDouble(arr[i], acc);
+                         if (i <= last)
+                              out[i] = acc;
+                    }
+                    double prefix = 0;
+                    for (int i = start + 1; i <= last; i++) {
+                         double v = arr[i + k - 1];
+                         prefix = i == start + 1 ? v : op.applyAsDouble(prefix, v);
+                         out[i] = op.applyAsDouble(out[i], prefix);
+                    }
+               }
+          });
+          return out;
+     }
+
+     // operators that have no method reference in the JDK
+     // Euclid runs on non-positive values, where MIN_VALUE has room; only a gcd of
+     // 2^31 (2^63 for long), i.e. of MIN_VALUE with itself or 0, throws ArithmeticException
+     public static int gcd(int a, int b) {
+          a = a > 0 ? -a : a;
+          b = b > 0 ? -b : b;
+          while (b != 0) {
+               int t = a % b;
+               a = b;
+               b = t;
+          }
+          return Math.negateExact(a);
+     }
+
+     public static long gcd(long a, long b) {
+          a = a > 0 ? -a : a;
+          b = b > 0 ? -b : b;
+          while (b != 0) {
+               long t = a % b;
+               a = b;
+               b = t;
+          }
+          return Math.negateExact(a);
+     }
+
+     static int windows(int n, int k) {
+          if (k < 1 || k > n) {
+               throw new IllegalArgumentException("window size " + k + " for " + n + " values");
+          }
+          return n - k + 1;
+     }
+
+     interface BlockRange {
+          void run(int fromBlock, int toBlock);
+     }
+
+     // runs body over every block that starts a window, split across the pool when n is large
+     void forEachBlockRange(int n, int k, BlockRange body) {
+          // blocks past the last window start have no window of their own
+          int blocks = (n - k) / k + 1;
+          if (n < parallelThreshold || pool == null || pool.getParallelism() < 2) {
+               body.run(0, blocks);
+               return;
+          }
+          int blocksPerTask = Math.max(1, parallelThreshold / (2 * k));
+          pool.invoke(new BlockTask(body, 0, blocks, blocksPerTask));
+     }
+
+     static final class BlockTask extends RecursiveAction {
+          private static final long serialVersionUID = 1L;
+
+          final BlockRange body;
+          final int from, to, blocksPerTask;
+
+          BlockTask(BlockRange body, int from, int to, int blocksPerTask) {
+               this.body = body;
+               this.from = from;
+               this.to = to;
+               this.blocksPerTask = blocksPerTask;
+          }
+
+          @Override
+          protected void compute() {
+               if (to - from <= blocksPerTask) {
+                    body.run(from, to);
+                    return;
+               }
+               int mid = (from + to) >>> 1;
+               invokeAll(new BlockTask(body, from, mid, blocksPerTask), new BlockTask(body, mid, to, blocksPerTask));
+          }
+     }
+}
@@ -0,0 +1,101 @@
+package MaximumofAllSubarraysofSizeK;
+
+/*
+ * Monotonic deque over a primitive ring buffer.
+ *
+ * Every entry is a (key, value) pair, where the key is a position or a
+ * timestamp that only grows. push() drops the entries at the back that the
+ * new value dominates (smaller or equal when keeping the maximum, larger
+ * or equal when keeping the minimum), so the values stay monotonic and the
+ * front is always the extreme of the entries kept. evictBefore() drops the
+ * entries at the front that left the window. Every entry is pushed and
+ * dropped once, so both are O(1) amortized.
+ *
+ * The ring only grows when more entries are kept than it holds; a count
+ * window of k never keeps more than k.
+ */
+public class MonotonicDeque {
+     private final boolean keepMax;
+     private long keys[];
+     private long values[];
+     private int mask;
+     private int head;
+     private int size;
+
+     public MonotonicDeque(boolean keepMax, int initialCapacity) {
+          if (initialCapacity < 1) {
+               throw new IllegalArgumentException("capacity must be positive");
+          }
+          this.keepMax = keepMax;
+          int capacity = Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1;
+          keys = new long[capacity];
+          values = new long[capacity];
+          mask = capacity - 1;
+     }
+
+     public void push(long key, long value) {
+          while (size > 0) {
+               long back = values[(head + size - 1) & mask];
+               if (keepMax ? back > value : back < value)
+                    break;
+               size--;
+          }
+          if (size == keys.length) {
+               grow();
+          }
+          int tail = (head + size) & mask;
+          keys[tail] = key;
+          values[tail] = value;
+          size++;
+     }
+
+     // drops the entries whose key is below minKey
+     public void evictBefore(long minKey) {
+          while (size > 0 && keys[head] < minKey) {
+               head = (head + 1) & mask;
+               size--;
+          }
+     }
+
+     public boolean isEmpty() {
+          return size == 0;
+     }
+
+     public int size() {
+          return size;
+     }
+
+     // the maximum (or minimum) of the entries kept
+     public long peek() {
+          if (size == 0) {
+               throw new IllegalStateException("empty deque");
+          }
+          return values[head];
+     }
+
+     public long peekKey() {
+          if (size == 0) {
+               throw new IllegalStateException("empty deque");
+          }
+          return keys[head];
+     }
+
+     public void clear() {
+          head = 0;
+          size = 0;
+     }
+
+     void grow() {
+          int capacity = keys.length;
+          long newKeys[] = new long[capacity << 1];
+          long newValues[] = new long[capacity << 1];
+          for (int i = 0; i < size; i++) {
+               newKeys[i] = keys[(head + i) & mask];
+               newValues[i] = values[(head + i) & mask];
+          }
+          keys = newKeys;
+          values = newValues;
+          mask = newKeys.length - 1;
+          head = 0;
+     }
+}
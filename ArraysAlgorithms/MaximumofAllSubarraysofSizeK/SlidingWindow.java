@@ -0,0 +1,130 @@
+package MaximumofAllSubarraysofSizeK;
+
+/*
+ * Streaming sliding-window maximum and/or minimum.
+ *
+ * A count window holds the last k values pushed. A time window holds the
+ * values whose timestamp is in (t - span, t], where t is the latest
+ * timestamp pushed or passed to advanceTo; timestamps must not decrease.
+ * max() and min() answer for the current window after every push.
+ *
+ * Each tracked statistic is one MonotonicDeque, so a push is O(1)
+ * amortized, and a count window never allocates after construction.
+ */
+public class SlidingWindow {
+     public enum Stat {
+          MAX, MIN, BOTH
+     }
+
+     // initial ring size for time windows, which grow on demand
+     static final int TIME_WINDOW_CAPACITY = 64;
+
+     private final boolean byTime;
+     private final long span;
+     private final MonotonicDeque maxes;
+     private final MonotonicDeque mins;
+     private long count;
+     private long now = Long.MIN_VALUE;
+
+     private SlidingWindow(boolean byTime, long span, Stat stat, int capacity) {
+          this.byTime = byTime;
+          this.span = span;
+          this.maxes = stat != Stat.MIN ? new MonotonicDeque(true, capacity) : null;
+          this.mins = stat != Stat.MAX ? new MonotonicDeque(false, capacity) : null;
+     }
+
+     // window of the last k values
+     public static SlidingWindow ofCount(int k, Stat stat) {
+          if (k < 1) {
+               throw new IllegalArgumentException("window size must be positive");
+          }
+          return new SlidingWindow(false, k, stat, k);
+     }
+
+     // window of the values stamped within the last span time units
+     public static SlidingWindow ofTime(long span, Stat stat) {
+          if (span < 1) {
+               throw new IllegalArgumentException("window span must be positive");
+          }
+          return new SlidingWindow(true, span, stat, TIME_WINDOW_CAPACITY);
+     }
+
+     public void push(long value) {
+          if (byTime) {
+               throw new IllegalStateException("a time window needs a timestamp with every value");
+          }
+          long position = count++;
+          evict(position - span + 1);
+          add(position, value);
+     }
+
+     public void push(long timestamp, long value) {
+          if (!byTime) {
+               throw new IllegalStateException("a count window takes values without timestamps");
+          }
+          advanceTo(timestamp);
+          count++;
+          add(timestamp, value);
+     }
+
+     // moves a time window forward without adding a value
+     public void advanceTo(long timestamp) {
+          if (!byTime) {
+               throw new IllegalStateException("only a time window can be advanced");
+          }
+          if (timestamp < now) {
+               throw new IllegalArgumentException("timestamp " + timestamp + " is before " + now);
+          }
+          now = timestamp;
+          evict(timestamp - span + 1);
+     }
+
+     // true once a count window has seen k values, or a time window holds any value
+     public boolean isFull() {
+          if (byTime)
+               return !(maxes != null ? maxes : mins).isEmpty();
+          return count >= span;
+     }
+
+     public long max() {
+          if (maxes == null) {
+               throw new IllegalStateException("window does not track the maximum");
+          }
+          return maxes.peek();
+     }
+
+     public long min() {
+          if (mins == null) {
+               throw new IllegalStateException("window does not track the minimum");
+          }
+          return mins.peek();
+     }
+
+     // values pushed so far
+     public long count() {
+          return count;
+     }
+
+     public void clear() {
+          count = 0;
+          now = Long.MIN_VALUE;
+          if (maxes != null)
+               maxes.clear();
+          if (mins != null)
+               mins.clear();
+     }
+
+     void add(long key, long value) {
+          if (maxes != null)
+               maxes.push(key, value);
+          if (mins != null)
+               mins.push(key, value);
+     }
+
+     void evict(long minKey) {
+          if (maxes != null)
+               maxes.evictBefore(minKey);
+          if (mins != null)
+               mins.evictBefore(minKey);
+     }
+}
@@ -1,5 +1,88 @@
 package MaximumofAllSubarraysofSizeK;
 
+/*
+ * Whole-array sliding-window maximum and minimum.
+ *
+ * Each window statistic uses a monotonic deque of indices into arr, kept
+ * in an int[] ring of at most k entries instead of an ArrayDeque<Integer>.
+ * Every index is pushed and popped once: O(n) time, O(k) extra memory.
+ * For values that arrive one at a time, use SlidingWindow.
+ */
 public class Solution {
-     
+     // Problem 1: result[i] = max(arr[i..i+k-1])
+     public int[] maxOfSubarrays(int[] arr, int k) {
+          int out[] = new int[windows(arr, k)];
+          slide(arr, k, out, null);
+          return out;
+     }
+
+     public int[] minOfSubarrays(int[] arr, int k) {
+          int out[] = new int[windows(arr, k)];
+          slide(arr, k, null, out);
+          return out;
+     }
+
+     // both at once; maxs and mins need room for arr.length - k + 1 windows
+     public void minMaxOfSubarrays(int[] arr, int k, int[] mins, int[] maxs) {
+          int windows = windows(arr, k);
+          if (mins.length < windows || maxs.length < windows) {
+               throw new IllegalArgumentException("output arrays need " + windows + " slots");
+          }
+          slide(arr, k, maxs, mins);
+     }
+
+     // Problem 2: sum of min + max over all windows of size k
+     public long sumOfMinMax(int[] arr, int k) {
+          int windows = windows(arr, k);
+          int mins[] = new int[windows];
+          int maxs[] = new int[windows];
+          slide(arr, k, maxs, mins);
+          long sum = 0;
+          for (int w = 0; w < windows; w++) {
+               sum += (long) mins[w] + maxs[w];
+          }
+          return sum;
+     }
+
+     static int windows(int[] arr, int k) {
+          if (arr == null || k < 1 || k > arr.length) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          return arr.length - k + 1;
+     }
+
+     // fills maxs and/or mins (either may be null) with the statistic of every window
+     static void slide(int[] arr, int k, int[] maxs, int[] mins) {
+          int capacity = Integer.highestOneBit(Math.max(1, k - 1)) << 1;
+          int mask = capacity - 1;
+          int maxRing[] = maxs != null ? new int[capacity] : null;
+          int minRing[] = mins != null ? new int[capacity] : null;
+          // head and tail count pushes and pops, the ring slot is the count & mask
+          int maxHead = 0, maxTail = 0, minHead = 0, minTail = 0;
+          for (int i = 0; i < arr.length; i++) {
+               int v = arr[i];
+               // evict before pushing, so the ring never holds more than k indices
+               if (maxRing != null) {
+                    if (maxTail > maxHead && maxRing[maxHead & mask] <= i - k)
+                         maxHead++;
+                    while (maxTail > maxHead && arr[maxRing[(maxTail - 1) & mask]] <= v)
+                         maxTail--;
+                    maxRing[maxTail++ & mask] = i;
+               }
+               if (minRing != null) {
+                    if (minTail > minHead && minRing[minHead & mask] <= i - k)
+                         minHead++;
+                    while (minTail > minHead && arr[minRing[(minTail - 1) & mask]] >= v)
+                         minTail--;
+                    minRing[minTail++ & mask] = i;
+               }
+               int w = i - k + 1;
+               if (w >= 0) {
+                    if (maxs != null)
+                         maxs[w] = arr[maxRing[maxHead & mask]];
+                    if (mins != null)
+                         mins[w] = arr[minRing[minHead & mask]];
+               }
+          }
+     }
 }
@@ -0,0 +1,216 @@
+package Median_of_TwoSortedArrays;
+
+import java.util.Arrays;
+
+/*
+ * Approximate quantiles of a stream in bounded memory (a KLL sketch).
+ *
+ * Values are kept in levels; an item at level h stands for 2^h values.
+ * New values go to level 0. When the sketch holds more items than its
+ * capacity, the lowest level that reached its own capacity is compacted:
+ * sorted, and every other item (starting at a random one of the first
+ * two) promoted one level up, so half the items carry twice the weight.
+ * The top level may hold k items and each level below two thirds of the
+ * one above (at least MIN_CAPACITY), so about 3k items are retained
+ * whatever the stream length, and a quantile is off by roughly 1.7 / k of
+ * n in rank (about 1% for the default k).
+ *
+ * Sketches merge: a thread can keep its own sketch and merge it into a
+ * shared one at the end. A single sketch is not safe to share between
+ * threads while values are being added.
+ */
+public class KllSketch {
+     public static final int DEFAULT_K = 200;
+     static final int MIN_CAPACITY = 8;
+
+     private final int k;
+     // levels[h][0, sizes[h]) are the items of weight 2^h
+     private double levels[][];
+     private int sizes[];
+     private int height = 1;
+     // items held, and how many the current levels may hold together
+     private int retained;
+     private int totalCapacity;
+     private long n;
+     private double min = Double.POSITIVE_INFINITY;
+     private double max = Double.NEGATIVE_INFINITY;
+     private long seed = 0x9E3779B97F4A7C15L;
+
+     public KllSketch() {
+          this(DEFAULT_K);
+     }
+
+     public KllSketch(int k) {
+          if (k < MIN_CAPACITY) {
+               throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+          }
+          this.k = k;
+          levels = new double[][] { new double[k] };
+          sizes = new int[1];
+          totalCapacity = k;
+     }
+
+     public void add(double v) {
+          if (Double.isNaN(v)) {
+               throw new IllegalArgumentException("NaN has no rank");
+          }
+          n++;
+          min = Math.min(min, v);
+          max = Math.max(max, v);
+          append(0, v);
+          if (retained > totalCapacity)
+               compress();
+     }
+
+     // adds every value other has seen; other is left unchanged
+     public void merge(KllSketch other) {
+          if (other == this) {
+               throw new IllegalArgumentException("a sketch cannot be merged into itself");
+          }
+          if (other.n == 0)
+               return;
+          for (int h = 0; h < other.height; h++) {
+               for (int i = 0; i < other.sizes[h]; i++)
+                    append(h, other.levels[h][i]);
+          }
+          n += other.n;
+          min = Math.min(min, other.min);
+          max = Math.max(max, other.max);
+          compress();
+     }
+
+     /*
+      * Approximately the quantile as SortedShards defines it: the values at
+      * ranks floor(q (n - 1)) and the one after, interpolated linearly. A
+      * retained item of weight 2^h covers 2^h consecutive ranks; 0 and
+      * 1 give the exact min and max.
+      */
+     public double quantile(double q) {
+          if (!(q >= 0 && q <= 1)) {
+               throw new IllegalArgumentException("quantile must be in [0, 1]");
+          }
+          if (n == 0) {
+               throw new IllegalStateException("no values");
+          }
+          if (q == 0)
+               return min;
+          if (q == 1)
+               return max;
+          double target = q * (n - 1);
+          long rank = (long) target;
+          double sorted[][] = sortedLevels();
+          int next[] = new int[height];
+          long seen = 0;
+          double below = Double.NaN;
+          while (true) {
+               // the smallest item not yet walked past, over all levels
+               int best = -1;
+               for (int h = 0; h < height; h++) {
+                    if (next[h] < sizes[h] && (best < 0 || sorted[h][next[h]] < sorted[best][next[best]]))
+                         best = h;
+               }
+               if (best < 0)
+                    return Double.isNaN(below) ? max : below + (target - rank) * (max - below);
+               double v = sorted[best][next[best]++];
+               seen += 1L << best;
+               if (Double.isNaN(below) && seen > rank)
+                    below = v;
+               // v also covers rank + 1 when its weight reaches past it
+               if (seen > rank + 1)
+                    return below + (target - rank) * (v - below);
+          }
+     }
+
+     public double median() {
+          return quantile(0.5);
+     }
+
+     // approximately the fraction of values <= v
+     public double rank(double v) {
+          if (n == 0) {
+               throw new IllegalStateException("no values");
+          }
+          long weight = 0;
+          for (int h = 0; h < height; h++) {
+               for (int i = 0; i < sizes[h]; i++) {
+                    if (levels[h][i] <= v)
+                         weight += 1L << h;
+               }
+          }
+          return (double) weight / n;
+     }
+
+     // values added, directly or through merge
+     public long size() {
+          return n;
+     }
+
+     // items held, which bounds the memory in use
+     public int retained() {
+          return retained;
+     }
+
+     int capacity(int h) {
+          int depth = height - 1 - h;
+          return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+     }
+
+     void append(int h, double v) {
+          while (h >= height) {
+               grow();
+          }
+          if (sizes[h] == levels[h].length)
+               levels[h] = Arrays.copyOf(levels[h], sizes[h] + (sizes[h] >> 1) + 1);
+          levels[h][sizes[h]++] = v;
+          retained++;
+     }
+
+     void grow() {
+          if (height == levels.length) {
+               levels = Arrays.copyOf(levels, height + 1);
+               sizes = Arrays.copyOf(sizes, height + 1);
+          }
+          if (levels[height] == null)
+               levels[height] = new double[MIN_CAPACITY];
+          height++;
+          totalCapacity = 0;
+          for (int h = 0; h < height; h++)
+               totalCapacity += capacity(h);
+     }
+
+     // compacts levels, lowest full one first, until the items fit the total capacity
+     void compress() {
+          while (retained > totalCapacity) {
+               int h = 0;
+               while (sizes[h] < capacity(h))
+                    h++;
+               compact(h);
+          }
+     }
+
+     // promotes every other item of level h, keeping one behind when the count is odd
+     void compact(int h) {
+          double items[] = levels[h];
+          int size = sizes[h];
+          Arrays.sort(items, 0, size);
+          // an odd item out stays at level h
+          int start = size & 1;
+          seed ^= seed << 13;
+          seed ^= seed >>> 7;
+          seed ^= seed << 17;
+          int offset = (int) (seed & 1);
+          for (int i = start + offset; i < size; i += 2)
+               append(h + 1, items[i]);
+          retained -= size - start;
+          sizes[h] = start;
+     }
+
+     double[][] sortedLevels() {
+          double sorted[][] = new double[height][];
+          for (int h = 0; h < height; h++) {
+               sorted[h] = Arrays.copyOf(levels[h], sizes[h]);
+               Arrays.sort(sorted[h]);
+          }
+          return sorted;
+     }
+}
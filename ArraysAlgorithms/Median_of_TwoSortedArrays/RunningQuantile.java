@@ -0,0 +1,107 @@
+package Median_of_TwoSortedArrays;
+
+import java.util.Arrays;
+
+/*
+ * Exact running quantile of an int stream with two heaps.
+ *
+ * The lower heap holds the smallest floor(q (n - 1)) + 1 values with its
+ * maximum on top; the upper heap holds the rest with its minimum on top.
+ * The two tops are the elements that SortedShards.quantile interpolates
+ * between, so value() and interpolated() are O(1) and add() is O(log n).
+ *
+ * Both heaps are min-heaps over int[]; the lower one stores ~v, which
+ * reverses the order of ints without overflow. Memory is O(n); use
+ * KllSketch when that is too much.
+ */
+public class RunningQuantile {
+     private final double q;
+     private int lower[] = new int[16];
+     private int upper[] = new int[16];
+     private int lowerSize, upperSize;
+
+     public RunningQuantile(double q) {
+          if (!(q >= 0 && q <= 1)) {
+               throw new IllegalArgumentException("quantile must be in [0, 1]");
+          }
+          this.q = q;
+     }
+
+     public static RunningQuantile median() {
+          return new RunningQuantile(0.5);
+     }
+
+     public void add(int v) {
+          if (lowerSize == 0 || v <= ~lower[0]) {
+               lower = push(lower, lowerSize++, ~v);
+          } else {
+               upper = push(upper, upperSize++, v);
+          }
+          long target = (long) (q * (lowerSize + upperSize - 1)) + 1;
+          // the target grows by at most one per value, so one move restores it
+          if (lowerSize > target) {
+               upper = push(upper, upperSize++, ~lower[0]);
+               pop(lower, lowerSize--);
+          } else if (lowerSize < target) {
+               lower = push(lower, lowerSize++, ~upper[0]);
+               pop(upper, upperSize--);
+          }
+     }
+
+     // the value at rank floor(q (n - 1))
+     public int value() {
+          if (lowerSize == 0) {
+               throw new IllegalStateException("no values");
+          }
+          return ~lower[0];
+     }
+
+     // the quantile, interpolated between value() and the next value up
+     public double interpolated() {
+          int below = value();
+          long n = size();
+          double pos = q * (n - 1);
+          double frac = pos - (long) pos;
+          if (upperSize == 0 || frac == 0)
+               return below;
+          return below + frac * ((double) upper[0] - below);
+     }
+
+     public long size() {
+          return (long) lowerSize + upperSize;
+     }
+
+     // pushes v onto heap[0, size) and returns the heap, grown if it was full
+     static int[] push(int[] heap, int size, int v) {
+          if (size == heap.length)
+               heap = Arrays.copyOf(heap, size + (size >> 1) + 1);
+          int i = size;
+          while (i > 0) {
+               int parent = (i - 1) >>> 1;
+               if (heap[parent] <= v)
+                    break;
+               heap[i] = heap[parent];
+               i = parent;
+          }
+          heap[i] = v;
+          return heap;
+     }
+
+     // removes the top of heap[0, size)
+     static void pop(int[] heap, int size) {
+          int v = heap[--size];
+          int i = 0;
+          while (true) {
+               int child = 2 * i + 1;
+               if (child >= size)
+                    break;
+               if (child + 1 < size && heap[child + 1] < heap[child])
+                    child++;
+               if (heap[child] >= v)
+                    break;
+               heap[i] = heap[child];
+               i = child;
+          }
+          heap[i] = v;
+     }
+}
@@ -29,6 +29,11 @@ public class Solution {
           return 0.0; // Should not reach here with valid input
      }
 
+     // any number of sorted arrays, without merging them
+     public double findMedianSortedArrays(int[][] arrays) {
+          return SortedShards.median(arrays);
+     }
+
      public static void main(String[] args) {
           Solution solution = new Solution();
           // Test Problem 1
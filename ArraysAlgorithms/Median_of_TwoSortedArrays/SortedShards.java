@@ -0,0 +1,87 @@
+package Median_of_TwoSortedArrays;
+
+/*
+ * Order statistics across any number of sorted int arrays ("shards")
+ * without merging them.
+ *
+ * select() bisects the value range: the number of elements <= x over all
+ * shards is one binary search per shard, and the element of rank r is the
+ * smallest x whose count exceeds r. At most 32 halvings of the int range,
+ * each O(N log(max len)), so a query is O(N log(max len)) for a fixed word
+ * size, whatever the total length. Empty shards are fine.
+ *
+ * Quantiles use the same definition everywhere in this package: for
+ * q in [0, 1] over n elements, interpolate linearly between the elements
+ * at ranks floor(q (n - 1)) and the one after, so quantile(0.5) is the
+ * usual median.
+ */
+public class SortedShards {
+     // the element of 0-based rank among all elements of all shards
+     public static int select(int[][] shards, long rank) {
+          long n = totalLength(shards);
+          if (rank < 0 || rank >= n) {
+               throw new IllegalArgumentException("rank " + rank + " of " + n + " elements");
+          }
+          long lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+          for (int[] shard : shards) {
+               if (shard.length > 0) {
+                    lo = Math.min(lo, shard[0]);
+                    hi = Math.max(hi, shard[shard.length - 1]);
+               }
+          }
+          // smallest x in [lo, hi] with more than rank elements <= x
+          while (lo < hi) {
+               long mid = (lo + hi) >> 1;
+               if (countAtMost(shards, (int) mid) > rank)
+                    hi = mid;
+               else
+                    lo = mid + 1;
+          }
+          return (int) lo;
+     }
+
+     public static double quantile(int[][] shards, double q) {
+          long n = totalLength(shards);
+          if (n == 0 || !(q >= 0 && q <= 1)) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          double pos = q * (n - 1);
+          long rank = (long) pos;
+          int below = select(shards, rank);
+          if (rank + 1 >= n || pos == rank)
+               return below;
+          return below + (pos - rank) * ((double) select(shards, rank + 1) - below);
+     }
+
+     public static double median(int[][] shards) {
+          return quantile(shards, 0.5);
+     }
+
+     // number of elements <= x over all shards
+     public static long countAtMost(int[][] shards, int x) {
+          long count = 0;
+          for (int[] shard : shards)
+               count += upperBound(shard, x);
+          return count;
+     }
+
+     public static long totalLength(int[][] shards) {
+          long n = 0;
+          for (int[] shard : shards)
+               n += shard.length;
+          return n;
+     }
+
+     // index of the first element > x
+     static int upperBound(int[] a, int x) {
+          int lo = 0, hi = a.length;
+          while (lo < hi) {
+               int mid = (lo + hi) >>> 1;
+               if (a[mid] <= x)
+                    lo = mid + 1;
+               else
+                    hi = mid;
+          }
+          return lo;
+     }
+}
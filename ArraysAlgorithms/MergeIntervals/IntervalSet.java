@@ -0,0 +1,378 @@
+import java.util.*;
+
+/*
+ * A set of integer points, stored as disjoint closed intervals
+ * [start, end], kept coalesced and sorted.
+ *
+ * An interval stands for the points start .. end, and add and remove both
+ * work point by point: after add(1, 3) and add(4, 6) the set holds [1, 6],
+ * and remove(5, 5) on [1, 10] leaves [1, 4] and [6, 10], which add(5, 5)
+ * joins back into [1, 10]. (MergeIntervals.mergeStandard, which merges only
+ * intervals that share a point, would keep [1, 3] and [4, 6] apart.) The
+ * stored intervals are disjoint and never adjacent, so ordering them by
+ * start also orders them by end, and containsAll needs only one of them.
+ *
+ * The intervals are the nodes of a treap (a binary search tree balanced by
+ * random priorities) packed into two primitive arrays, so there is no
+ * object per interval and a step down the tree touches two cache lines.
+ * Every update splits off the m intervals that [start, end] reaches, frees
+ * them, and joins what is left around the result: O(log n + m) expected,
+ * with no re-sort. Subtree sizes give positional access and overlap counts
+ * in O(log n).
+ */
+public class IntervalSet {
+     // node 0 is the empty tree; its count stays 0
+     static final int NIL = 0;
+     static final int LEFT = 0, RIGHT = 1, PRIORITY = 2, COUNT = 3;
+
+     // node t is [start, end] at bounds[2t], bounds[2t + 1]
+     private long bounds[];
+     // and left, right, priority, count at links[4t + LEFT] ...
+     private int links[];
+     private int root = NIL;
+     // nodes [1, used) have been handed out; freed ones are chained through their right link
+     private int used = 1;
+     private int free = NIL;
+     private int seed = 0x2545F491;
+     // the two trees produced by the last split
+     private int splitLeft, splitRight;
+
+     public IntervalSet() {
+          this(16);
+     }
+
+     public IntervalSet(int initialCapacity) {
+          if (initialCapacity < 1) {
+               throw new IllegalArgumentException("capacity must be positive");
+          }
+          bounds = new long[2 * (initialCapacity + 1)];
+          links = new int[4 * (initialCapacity + 1)];
+     }
+
+     // adds [start, end], merging it with every interval it overlaps or is adjacent to
+     public void add(long start, long end) {
+          check(start, end);
+          // an interval ending at start - 1 or starting at end + 1 leaves no point between them
+          long lo = start == Long.MIN_VALUE ? start : start - 1;
+          long hi = end == Long.MAX_VALUE ? end : end + 1;
+          int next = firstEndAtLeast(lo);
+          if (next == NIL || bounds[2 * next] > hi) {
+               // reaches nothing: a plain treap insert, one pass down the tree
+               root = insert(root, node(start, end));
+               return;
+          }
+          splitByEnd(root, lo);
+          int before = splitLeft;
+          splitByStart(splitRight, hi);
+          int reached = splitLeft, after = splitRight;
+          start = Math.min(start, bounds[2 * first(reached)]);
+          end = Math.max(end, bounds[2 * last(reached) + 1]);
+          release(reached);
+          root = merge(merge(before, node(start, end)), after);
+     }
+
+     // removes every point of [start, end], splitting an interval that covers it
+     public void remove(long start, long end) {
+          check(start, end);
+          int next = firstEndAtLeast(start);
+          if (next == NIL || bounds[2 * next] > end)
+               return;
+          splitByEnd(root, start);
+          int before = splitLeft;
+          splitByStart(splitRight, end);
+          int reached = splitLeft, after = splitRight;
+          // the parts of the first and last reached intervals that stick out
+          int first = first(reached), last = last(reached);
+          if (bounds[2 * first] < start)
+               before = merge(before, node(bounds[2 * first], start - 1));
+          if (bounds[2 * last + 1] > end)
+               after = merge(node(end + 1, bounds[2 * last + 1]), after);
+          release(reached);
+          root = merge(before, after);
+     }
+
+     // stabbing query: position of the interval that contains point, or -1
+     public int indexOf(long point) {
+          int t = root, rank = 0, found = NIL, foundRank = 0;
+          // the first interval whose end is at least point is the only candidate
+          while (t != NIL) {
+               if (bounds[2 * t + 1] < point) {
+                    rank += count(left(t)) + 1;
+                    t = right(t);
+               } else {
+                    found = t;
+                    foundRank = rank + count(left(t));
+                    t = left(t);
+               }
+          }
+          return found != NIL && bounds[2 * found] <= point ? foundRank : -1;
+     }
+
+     public boolean contains(long point) {
+          return indexOf(point) >= 0;
+     }
+
+     // true when every point of [start, end] is in the set
+     public boolean containsAll(long start, long end) {
+          check(start, end);
+          int i = indexOf(start);
+          return i >= 0 && bounds[2 * select(i) + 1] >= end;
+     }
+
+     // number of stored intervals that share a point with [start, end]
+     public int overlapCount(long start, long end) {
+          check(start, end);
+          return startsAtMost(end) - endsBelow(start);
+     }
+
+     // the stored intervals that share a point with [start, end], in order
+     public List<long[]> overlapping(long start, long end) {
+          check(start, end);
+          splitByEnd(root, start);
+          int before = splitLeft;
+          splitByStart(splitRight, end);
+          int reached = splitLeft, after = splitRight;
+          List<long[]> res = new ArrayList<>(count(reached));
+          collect(reached, res);
+          root = merge(merge(before, reached), after);
+          return res;
+     }
+
+     public List<long[]> intervals() {
+          List<long[]> res = new ArrayList<>(count(root));
+          collect(root, res);
+          return res;
+     }
+
+     public int size() {
+          return count(root);
+     }
+
+     public boolean isEmpty() {
+          return root == NIL;
+     }
+
+     // start and end of the i-th interval in order
+     public long start(int i) {
+          return bounds[2 * select(i)];
+     }
+
+     public long end(int i) {
+          return bounds[2 * select(i) + 1];
+     }
+
+     public void clear() {
+          root = NIL;
+          used = 1;
+          free = NIL;
+     }
+
+     // splits t into the nodes whose end is below x (splitLeft) and the rest (splitRight)
+     void splitByEnd(int t, long x) {
+          if (t == NIL) {
+               splitLeft = splitRight = NIL;
+          } else if (bounds[2 * t + 1] < x) {
+               splitByEnd(right(t), x);
+               links[4 * t + RIGHT] = splitLeft;
+               update(t);
+               splitLeft = t;
+          } else {
+               splitByEnd(left(t), x);
+               links[4 * t + LEFT] = splitRight;
+               update(t);
+               splitRight = t;
+          }
+     }
+
+     // splits t into the nodes whose start is at most x (splitLeft) and the rest (splitRight)
+     void splitByStart(int t, long x) {
+          if (t == NIL) {
+               splitLeft = splitRight = NIL;
+          } else if (bounds[2 * t] <= x) {
+               splitByStart(right(t), x);
+               links[4 * t + RIGHT] = splitLeft;
+               update(t);
+               splitLeft = t;
+          } else {
+               splitByStart(left(t), x);
+               links[4 * t + LEFT] = splitRight;
+               update(t);
+               splitRight = t;
+          }
+     }
+
+     // inserts node n, which overlaps nothing in t, and returns the new root
+     int insert(int t, int n) {
+          if (t == NIL)
+               return n;
+          if (links[4 * n + PRIORITY] > links[4 * t + PRIORITY]) {
+               splitByStart(t, bounds[2 * n]);
+               links[4 * n + LEFT] = splitLeft;
+               links[4 * n + RIGHT] = splitRight;
+               update(n);
+               return n;
+          }
+          if (bounds[2 * n] < bounds[2 * t])
+               links[4 * t + LEFT] = insert(left(t), n);
+          else
+               links[4 * t + RIGHT] = insert(right(t), n);
+          update(t);
+          return t;
+     }
+
+     // joins two trees where every node of a comes before every node of b
+     int merge(int a, int b) {
+          if (a == NIL)
+               return b;
+          if (b == NIL)
+               return a;
+          if (links[4 * a + PRIORITY] > links[4 * b + PRIORITY]) {
+               links[4 * a + RIGHT] = merge(right(a), b);
+               update(a);
+               return a;
+          }
+          links[4 * b + LEFT] = merge(a, left(b));
+          update(b);
+          return b;
+     }
+
+     int left(int t) {
+          return links[4 * t + LEFT];
+     }
+
+     int right(int t) {
+          return links[4 * t + RIGHT];
+     }
+
+     int count(int t) {
+          return links[4 * t + COUNT];
+     }
+
+     void update(int t) {
+          links[4 * t + COUNT] = count(left(t)) + count(right(t)) + 1;
+     }
+
+     int first(int t) {
+          while (left(t) != NIL)
+               t = left(t);
+          return t;
+     }
+
+     int last(int t) {
+          while (right(t) != NIL)
+               t = right(t);
+          return t;
+     }
+
+     // node of the i-th interval in order
+     int select(int i) {
+          Objects.checkIndex(i, count(root));
+          int t = root;
+          while (true) {
+               int l = count(left(t));
+               if (i < l) {
+                    t = left(t);
+               } else if (i == l) {
+                    return t;
+               } else {
+                    i -= l + 1;
+                    t = right(t);
+               }
+          }
+     }
+
+     // node of the first interval whose end is at least x, or NIL
+     int firstEndAtLeast(long x) {
+          int t = root, found = NIL;
+          while (t != NIL) {
+               if (bounds[2 * t + 1] < x) {
+                    t = right(t);
+               } else {
+                    found = t;
+                    t = left(t);
+               }
+          }
+          return found;
+     }
+
+     // number of intervals whose end is below x
+     int endsBelow(long x) {
+          int t = root, n = 0;
+          while (t != NIL) {
+               if (bounds[2 * t + 1] < x) {
+                    n += count(left(t)) + 1;
+                    t = right(t);
+               } else {
+                    t = left(t);
+               }
+          }
+          return n;
+     }
+
+     // number of intervals whose start is at most x
+     int startsAtMost(long x) {
+          int t = root, n = 0;
+          while (t != NIL) {
+               if (bounds[2 * t] <= x) {
+                    n += count(left(t)) + 1;
+                    t = right(t);
+               } else {
+                    t = left(t);
+               }
+          }
+          return n;
+     }
+
+     void collect(int t, List<long[]> res) {
+          if (t == NIL)
+               return;
+          collect(left(t), res);
+          res.add(new long[] { bounds[2 * t], bounds[2 * t + 1] });
+          collect(right(t), res);
+     }
+
+     // returns every node of t to the free list
+     void release(int t) {
+          if (t == NIL)
+               return;
+          release(left(t));
+          release(right(t));
+          links[4 * t + RIGHT] = free;
+          free = t;
+     }
+
+     int node(long start, long end) {
+          int t;
+          if (free != NIL) {
+               t = free;
+               free = right(t);
+          } else {
+               if (2 * used == bounds.length)
+                    grow();
+               t = used++;
+          }
+          bounds[2 * t] = start;
+          bounds[2 * t + 1] = end;
+          links[4 * t + LEFT] = NIL;
+          links[4 * t + RIGHT] = NIL;
+          links[4 * t + COUNT] = 1;
+          // xorshift, so the shape does not depend on the insertion order
+          seed ^= seed << 13;
+          seed ^= seed >>> 17;
+          seed ^= seed << 5;
+          links[4 * t + PRIORITY] = seed;
+          return t;
+     }
+
+     void grow() {
+          int capacity = used + (used >> 1) + 1;
+          bounds = Arrays.copyOf(bounds, 2 * capacity);
+          links = Arrays.copyOf(links, 4 * capacity);
+     }
+
+     static void check(long start, long end) {
+          if (start > end) {
+               throw new IllegalArgumentException("Invalid interval [" + start + ", " + end + "]");
+          }
+     }
+}
@@ -75,6 +75,24 @@ public class MergeIntervals {
           System.out.println("Merged Intervals:");
           printIntervals(result3);
 
+          System.out.println("\nTest Case 4 (IntervalSet, remove then add back):");
+          IntervalSet booked = new IntervalSet();
+          booked.add(1, 10);
+          booked.remove(5, 5);
+          System.out.println("After remove(5, 5):");
+          printSet(booked);
+          booked.add(5, 5);
+          System.out.println("After add(5, 5):");
+          printSet(booked);
+          System.out.println("containsAll(1, 10): " + booked.containsAll(1, 10));
+
+     }
+
+     private static void printSet(IntervalSet set) {
+          for (long[] interval : set.intervals()) {
+               System.out.print("[" + interval[0] + ", " + interval[1] + "] ");
+          }
+          System.out.println();
      }
 
      private static void printIntervals(List<int[]> intervals) {
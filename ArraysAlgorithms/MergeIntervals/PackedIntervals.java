@@ -0,0 +1,296 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/*
+ * Interval merging over packed longs, for inputs too large for int[][].
+ *
+ * An interval [start, end] is the long start << 32 | end, so n intervals
+ * are one long[n] instead of n small arrays, and comparing two packed
+ * values as signed longs compares their starts. Merging follows
+ * MergeIntervals.mergeStandard: intervals that overlap or touch become one.
+ *
+ * The intervals are sorted by start with an LSD radix sort on the upper 32
+ * bits (four 8-bit passes, skipping passes whose digit never varies), then
+ * merged in one pass. The parallel variants build the radix histograms per
+ * chunk, merge every chunk on its own, and then fix up the chunk
+ * boundaries, where the last interval of one chunk can swallow the first
+ * few of the next.
+ *
+ * sweep() also reports the maximum number of intervals sharing a point
+ * and the total covered length, from one pass over the sorted starts and
+ * the sorted ends.
+ */
+public class PackedIntervals {
+     static final int BITS = 8;
+     static final int BUCKETS = 1 << BITS;
+     static final int MASK = BUCKETS - 1;
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+     public static long pack(int start, int end) {
+          if (start > end) {
+               throw new IllegalArgumentException("Invalid interval [" + start + ", " + end + "]");
+          }
+          return (long) start << 32 | (end & 0xFFFFFFFFL);
+     }
+
+     public static int start(long interval) {
+          return (int) (interval >> 32);
+     }
+
+     public static int end(long interval) {
+          return (int) interval;
+     }
+
+     /*
+      * Merges the packed intervals in place. The merged intervals, sorted
+      * by start, are left in intervals[0, count) and count is returned.
+      */
+     public static int merge(long[] intervals) {
+          return merge(intervals, null);
+     }
+
+     public static int parallelMerge(long[] intervals) {
+          return merge(intervals, parallelPool(intervals.length));
+     }
+
+     // merge() plus the deepest overlap and the covered length
+     public static Sweep sweep(long[] intervals) {
+          return sweep(intervals, null);
+     }
+
+     public static Sweep parallelSweep(long[] intervals) {
+          return sweep(intervals, parallelPool(intervals.length));
+     }
+
+     public static final class Sweep {
+          // merged intervals left at the front of the input
+          public final int count;
+          // most intervals that share one point, and the first such point
+          public final int maxConcurrency;
+          public final int busiestPoint;
+          // sum of end - start over the merged intervals
+          public final long coveredLength;
+
+          Sweep(int count, int maxConcurrency, int busiestPoint, long coveredLength) {
+               this.count = count;
+               this.maxConcurrency = maxConcurrency;
+               this.busiestPoint = busiestPoint;
+               this.coveredLength = coveredLength;
+          }
+     }
+
+     // pool == null runs on the caller
+     static int merge(long[] a, ForkJoinPool pool) {
+          int n = a.length;
+          if (n == 0)
+               return 0;
+          sortByStart(a, pool);
+          int chunks = pool == null ? 1 : chunkCount(n, pool);
+          int counts[] = new int[chunks];
+          forEachChunk(pool, chunks, c -> {
+               int lo = chunkStart(n, chunks, c);
+               counts[c] = mergeRun(a, lo, chunkStart(n, chunks, c + 1)) - lo;
+          });
+          // boundary fixup: the last merged interval so far absorbs the chunk heads it reaches
+          int w = counts[0];
+          for (int c = 1; c < chunks; c++) {
+               int lo = chunkStart(n, chunks, c), hi = lo + counts[c];
+               int tailStart = start(a[w - 1]), tailEnd = end(a[w - 1]);
+               while (lo < hi && start(a[lo]) <= tailEnd) {
+                    tailEnd = Math.max(tailEnd, end(a[lo]));
+                    lo++;
+               }
+               a[w - 1] = (long) tailStart << 32 | (tailEnd & 0xFFFFFFFFL);
+               System.arraycopy(a, lo, a, w, hi - lo);
+               w += hi - lo;
+          }
+          return w;
+     }
+
+     // merges the sorted a[lo, hi) into a[lo, w) and returns w
+     static int mergeRun(long[] a, int lo, int hi) {
+          int w = lo;
+          int curStart = start(a[lo]), curEnd = end(a[lo]);
+          check(curStart, curEnd);
+          for (int i = lo + 1; i < hi; i++) {
+               int s = start(a[i]), e = end(a[i]);
+               check(s, e);
+               if (s <= curEnd) {
+                    curEnd = Math.max(curEnd, e);
+               } else {
+                    a[w++] = (long) curStart << 32 | (curEnd & 0xFFFFFFFFL);
+                    curStart = s;
+                    curEnd = e;
+               }
+          }
+          a[w++] = (long) curStart << 32 | (curEnd & 0xFFFFFFFFL);
+          return w;
+     }
+
+     static Sweep sweep(long[] a, ForkJoinPool pool) {
+          int n = a.length;
+          if (n == 0)
+               return new Sweep(0, 0, 0, 0);
+          sortByStart(a, pool);
+          int ends[] = new int[n];
+          for (int i = 0; i < n; i++) {
+               ends[i] = end(a[i]);
+               check(start(a[i]), ends[i]);
+          }
+          sortInts(ends, pool);
+          int w = 0, active = 0, max = 0, busiest = 0, runStart = 0;
+          long covered = 0;
+          int i = 0, j = 0;
+          while (j < n) {
+               // on a tie the start goes first, since both intervals contain the point
+               if (i < n && start(a[i]) <= ends[j]) {
+                    int s = start(a[i++]);
+                    if (active++ == 0)
+                         runStart = s;
+                    if (active > max) {
+                         max = active;
+                         busiest = s;
+                    }
+               } else {
+                    int e = ends[j++];
+                    if (--active == 0) {
+                         // a run closes only after one of its starts was read, so w < i
+                         a[w++] = (long) runStart << 32 | (e & 0xFFFFFFFFL);
+                         covered += (long) e - runStart;
+                    }
+               }
+          }
+          return new Sweep(w, max, busiest, covered);
+     }
+
+     // LSD radix sort on the upper 32 bits as a signed int, so ties keep their order
+     static void sortByStart(long[] a, ForkJoinPool pool) {
+          int n = a.length;
+          if (n < 2)
+               return;
+          long buf[] = new long[n];
+          long src[] = a, dst[] = buf;
+          int chunks = pool == null ? 1 : chunkCount(n, pool);
+          int hist[][] = new int[chunks][BUCKETS];
+          for (int shift = 32; shift < 64; shift += BITS) {
+               int sh = shift;
+               long from[] = src, to[] = dst;
+               forEachChunk(pool, chunks, c -> {
+                    int h[] = hist[c];
+                    Arrays.fill(h, 0);
+                    for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                         h[(int) ((from[i] ^ Long.MIN_VALUE) >>> sh) & MASK]++;
+                    }
+               });
+               if (toOffsets(hist, (int) ((src[0] ^ Long.MIN_VALUE) >>> sh) & MASK, n))
+                    continue;
+               forEachChunk(pool, chunks, c -> {
+                    int offset[] = hist[c];
+                    for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                         long v = from[i];
+                         to[offset[(int) ((v ^ Long.MIN_VALUE) >>> sh) & MASK]++] = v;
+                    }
+               });
+               src = to;
+               dst = from;
+          }
+          if (src != a)
+               System.arraycopy(src, 0, a, 0, n);
+     }
+
+     static void sortInts(int[] a, ForkJoinPool pool) {
+          int n = a.length;
+          if (n < 2)
+               return;
+          int buf[] = new int[n];
+          int src[] = a, dst[] = buf;
+          int chunks = pool == null ? 1 : chunkCount(n, pool);
+          int hist[][] = new int[chunks][BUCKETS];
+          for (int shift = 0; shift < 32; shift += BITS) {
+               int sh = shift;
+               int from[] = src, to[] = dst;
+               forEachChunk(pool, chunks, c -> {
+                    int h[] = hist[c];
+                    Arrays.fill(h, 0);
+                    for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                         h[((from[i] ^ Integer.MIN_VALUE) >>> sh) & MASK]++;
+                    }
+               });
+               if (toOffsets(hist, ((src[0] ^ Integer.MIN_VALUE) >>> sh) & MASK, n))
+                    continue;
+               forEachChunk(pool, chunks, c -> {
+                    int offset[] = hist[c];
+                    for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                         int v = from[i];
+                         to[offset[((v ^ Integer.MIN_VALUE) >>> sh) & MASK]++] = v;
+                    }
+               });
+               src = to;
+               dst = from;
+          }
+          if (src != a)
+               System.arraycopy(src, 0, a, 0, n);
+     }
+
+     /*
+      * Turns per-chunk digit counts into per-chunk write offsets, digit by
+      * digit and chunk by chunk within a digit. Returns true, leaving the
+      * counts alone, when every key has the sample digit and the pass can
+      * be skipped.
+      */
+     static boolean toOffsets(int hist[][], int sampleDigit, int n) {
+          int same = 0;
+          for (int h[] : hist)
+               same += h[sampleDigit];
+          if (same == n)
+               return true;
+          int sum = 0;
+          for (int d = 0; d < BUCKETS; d++) {
+               for (int h[] : hist) {
+                    int c = h[d];
+                    h[d] = sum;
+                    sum += c;
+               }
+          }
+          return false;
+     }
+
+     static void check(int start, int end) {
+          if (start > end) {
+               throw new IllegalArgumentException("Invalid interval [" + start + ", " + end + "]");
+          }
+     }
+
+     static ForkJoinPool parallelPool(int n) {
+          return n >= DEFAULT_PARALLEL_THRESHOLD ? ForkJoinPool.commonPool() : null;
+     }
+
+     static int chunkCount(int n, ForkJoinPool pool) {
+          return Math.max(1, Math.min(pool.getParallelism(), n / (DEFAULT_PARALLEL_THRESHOLD / 4)));
+     }
+
+     static int chunkStart(int n, int chunks, int c) {
+          return (int) ((long) n * c / chunks);
+     }
+
+     static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+          if (chunks == 1) {
+               body.accept(0);
+               return;
+          }
+          pool.invoke(new RecursiveAction() {
+               @Override
+               protected void compute() {
+                    ForkJoinTask<?> tasks[] = new ForkJoinTask<?>[chunks];
+                    for (int c = 0; c < chunks; c++) {
+                         int chunk = c;
+                         tasks[c] = ForkJoinTask.adapt(() -> body.accept(chunk));
+                    }
+                    invokeAll(tasks);
+               }
+          });
+     }
+}
@@ -12,7 +12,7 @@ public class RotateArrayByK {
                k = k + n;
 
           // copy last k elements to the start of the temp array
-          int[] temp = new int[k];
+          int[] temp = new int[n];
           for (int i = 0; i < k; i++)
                temp[i] = arr[n - k + i];
           for (int i = k; i < n; i++)
@@ -21,9 +21,12 @@ public class RotateArrayByK {
                arr[i] = temp[i];
      }
 
+     // for large arrays, Rotator picks a faster strategy
      public static void rotateOptimized(int[] arr, int k) {
           int n = arr.length;
-          k = k % n;
+          if (n == 0)
+               return;
+          k = Math.floorMod(k, n);// negative k rotates left
           reverse(arr, 0, n - 1);// entrire array reverse;
           reverse(arr, 0, k - 1);// first k elements reverse;
           reverse(arr, k, n - 1);// last n-k elements reverse;
@@ -0,0 +1,478 @@
+package RotateArrayByK;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/*
+ * In-place rotation to the right by k: the element at i moves to
+ * (i + k) mod n. Any k is accepted, negative k rotates left, and empty
+ * arrays are left alone.
+ *
+ * Strategies:
+ * - BUFFER copies the shorter side aside, moves the longer side with one
+ *   arraycopy and puts the shorter side back: about n + min(k, n - k)
+ *   sequential writes, all through the arraycopy intrinsic.
+ * - JUGGLING follows the gcd(n, k) cycles of the permutation: one write
+ *   per element and no scratch at all. The stride of k defeats both the
+ *   prefetcher and the arraycopy intrinsic, so even in cache it measures
+ *   3-5x slower than the copying strategies; AUTO never picks it.
+ * - BLOCK_SWAP (Gries-Mills) swaps equal blocks until the shorter side
+ *   fits in a fixed scratch array, then finishes like BUFFER. Every swap
+ *   is a few arraycopy calls through that scratch array, so memory is
+ *   touched in order and the scratch never outgrows L1.
+ * - REVERSAL is the three reversals of RotateArrayByK.rotateOptimized.
+ *
+ * AUTO uses BUFFER when the shorter side fits in the scratch size, or is
+ * at most an eighth of the array and fits in CACHE_BYTES; otherwise
+ * BLOCK_SWAP. Direct buffers always go through the block swap, with bulk
+ * get and put.
+ */
+public class Rotator {
+     public enum Strategy {
+          AUTO, BUFFER, JUGGLING, BLOCK_SWAP, REVERSAL
+     }
+
+     // scratch space for BUFFER under AUTO and for BLOCK_SWAP, about an L1 data cache
+     static final int SCRATCH_BYTES = 1 << 15;
+     // a reference under compressed oops; without them the size estimates for Object[] are half the truth
+     static final int REFERENCE_BYTES = 4;
+     // largest side BUFFER copies aside when it is small next to the array, about an L2 cache
+     static final int CACHE_BYTES = 1 << 21;
+
+     public static void rotate(int[] arr, int k) {
+          rotate(arr, k, Strategy.AUTO);
+     }
+
+     public static void rotate(int[] arr, int k, Strategy strategy) {
+          int n = arr.length;
+          if (n < 2)
+               return;
+          int d = n - Math.floorMod(k, n);
+          if (d == n)
+               return;
+          // rotating right by k is rotating left by d
+          switch (choose(strategy, n, d, Integer.BYTES)) {
+               case BUFFER:
+                    rotateLeft(arr, 0, n, d, new int[Math.min(d, n - d)]);
+                    break;
+               case JUGGLING:
+                    juggle(arr, d);
+                    break;
+               case BLOCK_SWAP:
+                    blockSwap(arr, 0, n, d, new int[SCRATCH_BYTES / Integer.BYTES]);
+                    break;
+               default:
+                    reverse(arr, 0, n - 1);
+                    reverse(arr, 0, n - d - 1);
+                    reverse(arr, n - d, n - 1);
+          }
+     }
+
+     public static void rotate(long[] arr, int k) {
+          rotate(arr, k, Strategy.AUTO);
+     }
+
+     public static void rotate(long[] arr, int k, Strategy strategy) {
+          int n = arr.length;
+          if (n < 2)
+               return;
+          int d = n - Math.floorMod(k, n);
+          if (d == n)
+               return;
+          switch (choose(strategy, n, d, Long.BYTES)) {
+               case BUFFER:
+                    rotateLeft(arr, 0, n, d, new long[Math.min(d, n - d)]);
+                    break;
+               case JUGGLING:
+                    juggle(arr, d);
+                    break;
+               case BLOCK_SWAP:
+                    blockSwap(arr, 0, n, d, new long[SCRATCH_BYTES / Long.BYTES]);
+                    break;
+               default:
+                    reverse(arr, 0, n - 1);
+                    reverse(arr, 0, n - d - 1);
+                    reverse(arr, n - d, n - 1);
+          }
+     }
+
+     public static void rotate(Object[] arr, int k) {
+          rotate(arr, k, Strategy.AUTO);
+     }
+
+     public static void rotate(Object[] arr, int k, Strategy strategy) {
+          int n = arr.length;
+          if (n < 2)
+               return;
+          int d = n - Math.floorMod(k, n);
+          if (d == n)
+               return;
+          switch (choose(strategy, n, d, REFERENCE_BYTES)) {
+               case BUFFER:
+                    rotateLeft(arr, 0, n, d, new Object[Math.min(d, n - d)]);
+                    break;
+               case JUGGLING:
+                    juggle(arr, d);
+                    break;
+               case BLOCK_SWAP:
+                    blockSwap(arr, 0, n, d, new Object[SCRATCH_BYTES / REFERENCE_BYTES]);
+                    break;
+               default:
+                    reverse(arr, 0, n - 1);
+                    reverse(arr, 0, n - d - 1);
+                    reverse(arr, n - d, n - 1);
+          }
+     }
+
+     // rotates the elements between the buffer's position and limit
+     public static void rotate(IntBuffer buf, int k) {
+          int n = buf.remaining();
+          if (n < 2)
+               return;
+          int d = n - Math.floorMod(k, n);
+          if (d != n)
+               blockSwap(buf, buf.position(), buf.position() + n, d, new int[SCRATCH_BYTES / Integer.BYTES], new int[SCRATCH_BYTES / Integer.BYTES]);
+     }
+
+     public static void rotate(LongBuffer buf, int k) {
+          int n = buf.remaining();
+          if (n < 2)
+               return;
+          int d = n - Math.floorMod(k, n);
+          if (d != n)
+               blockSwap(buf, buf.position(), buf.position() + n, d, new long[SCRATCH_BYTES / Long.BYTES], new long[SCRATCH_BYTES / Long.BYTES]);
+     }
+
+     static Strategy choose(Strategy strategy, int n, int d, int elementBytes) {
+          if (strategy != Strategy.AUTO)
+               return strategy;
+          long shorter = Math.min(d, n - d);
+          if (shorter * elementBytes <= SCRATCH_BYTES)
+               return Strategy.BUFFER;
+          if (shorter <= n / 8 && shorter * elementBytes <= CACHE_BYTES)
+               return Strategy.BUFFER;
+          return Strategy.BLOCK_SWAP;
+     }
+
+     // rotates a[lo, hi) left by d; tmp holds at least min(d, hi - lo - d) elements
+     static void rotateLeft(int[] a, int lo, int hi, int d, int[] tmp) {
+          int len = hi - lo;
+          if (d <= len - d) {
+               System.arraycopy(a, lo, tmp, 0, d);
+               System.arraycopy(a, lo + d, a, lo, len - d);
+               System.arraycopy(tmp, 0, a, hi - d, d);
+          } else {
+               int m = len - d;
+               System.arraycopy(a, lo + d, tmp, 0, m);
+               System.arraycopy(a, lo, a, lo + m, d);
+               System.arraycopy(tmp, 0, a, lo, m);
+          }
+     }
+
+     // a[lo, hi) = A B with |A| = d becomes B A
+     static void blockSwap(int[] a, int lo, int hi, int d, int[] tmp) {
+          while (true) {
+               int la = d, lb = hi - lo - d;
+               if (Math.min(la, lb) <= tmp.length) {
+                    rotateLeft(a, lo, hi, d, tmp);
+                    return;
+               }
+               if (la <= lb) {
+                    // A Bl Br -> Br Bl A, then Br Bl still needs rotating left by |A|
+                    swap(a, lo, hi - la, la, tmp);
+                    hi -= la;
+               } else {
+                    // Al Ar B -> B Ar Al, then Ar Al needs rotating left by |Ar|
+                    swap(a, lo, lo + la, lb, tmp);
+                    lo += lb;
+                    d = la - lb;
+               }
+          }
+     }
+
+     // swaps the disjoint blocks a[i, i + len) and a[j, j + len)
+     static void swap(int[] a, int i, int j, int len, int[] tmp) {
+          for (int done = 0; done < len; done += tmp.length) {
+               int c = Math.min(tmp.length, len - done);
+               System.arraycopy(a, i + done, tmp, 0, c);
+               System.arraycopy(a, j + done, a, i + done, c);
+               System.arraycopy(tmp, 0, a, j + done, c);
+          }
+     }
+
+     // follows each of the gcd(n, d) cycles, moving every element once
+     static void juggle(int[] a, int d) {
+          int n = a.length;
+          for (int c = 0, cycles = gcd(n, d); c < cycles; c++) {
+               int first = a[c];
+               int i = c;
+               while (true) {
+                    // (i + d) mod n without forming i + d, which overflows once n > 2^30
+                    int j = i < n - d ? i + d : i - (n - d);
+                    if (j == c)
+                         break;
+                    a[i] = a[j];
+                    i = j;
+               }
+               a[i] = first;
+          }
+     }
+
+     static void reverse(int[] a, int i, int j) {
+          for (; i < j; i++, j--) {
+               int t = a[i];
+               a[i] = a[j];
+               a[j] = t;
+          }
+     }
+
+     // the long[] and Object[] versions of the int[] helpers
+     static void rotateLeft(long[] a, int lo, int hi, int d, long[] tmp) {
+          int len = hi - lo;
+          if (d <= len - d) {
+               System.arraycopy(a, lo, tmp, 0, d);
+               System.arraycopy(a, lo + d, a, lo, len - d);
+               System.arraycopy(tmp, 0, a, hi - d, d);
+          } else {
+               int m = len - d;
+               System.arraycopy(a, lo + d, tmp, 0, m);
+               System.arraycopy(a, lo, a, lo + m, d);
+               System.arraycopy(tmp, 0, a, lo, m);
+          }
+     }
+
+     static void blockSwap(long[] a, int lo, int hi, int d, long[] tmp) {
+          while (true) {
+               int la = d, lb = hi - lo - d;
+               if (Math.min(la, lb) <= tmp.length) {
+                    rotateLeft(a, lo, hi, d, tmp);
+                    return;
+               }
+               if (la <= lb) {
+                    swap(a, lo, hi - la, la, tmp);
+                    hi -= la;
+               } else {
+                    swap(a, lo, lo + la, lb, tmp);
+                    lo += lb;
+                    d = la - lb;
+               }
+          }
+     }
+
+     static void swap(long[] a, int i, int j, int len, long[] tmp) {
+          for (int done = 0; done < len; done += tmp.length) {
+               int c = Math.min(tmp.length, len - done);
+               System.arraycopy(a, i + done, tmp, 0, c);
+               System.arraycopy(a, j + done, a, i + done, c);
+               System.arraycopy(tmp, 0, a, j + done, c);
+          }
+     }
+
+     static void juggle(long[] a, int d) {
+          int n = a.length;
+          for (int c = 0, cycles = gcd(n, d); c < cycles; c++) {
+               long first = a[c];
+               int i = c;
+               while (true) {
+                    int j = i < n - d ? i + d : i - (n - d);
+                    if (j == c)
+                         break;
+                    a[i] = a[j];
+                    i = j;
+               }
+               a[i] = first;
+          }
+     }
+
+     static void reverse(long[] a, int i, int j) {
+          for (; i < j; i++, j--) {
+               long t = a[i];
+               a[i] = a[j];
+               a[j] = t;
+          }
+     }
+
+     static void rotateLeft(Object[] a, int lo, int hi, int d, Object[] tmp) {
+          int len = hi - lo;
+          if (d <= len - d) {
+               System.arraycopy(a, lo, tmp, 0, d);
+               System.arraycopy(a, lo + d, a, lo, len - d);
+               System.arraycopy(tmp, 0, a, hi - d, d);
+          } else {
+               int m = len - d;
+               System.arraycopy(a, lo + d, tmp, 0, m);
+               System.arraycopy(a, lo, a, lo + m, d);
+               System.arraycopy(tmp, 0, a, lo, m);
+          }
+     }
+
+     static void blockSwap(Object[] a, int lo, int hi, int d, Object[] tmp) {
+          while (true) {
+               int la = d, lb = hi - lo - d;
+               if (Math.min(la, lb) <= tmp.length) {
+                    rotateLeft(a, lo, hi, d, tmp);
+                    return;
+               }
+               if (la <= lb) {
+                    swap(a, lo, hi - la, la, tmp);
+                    hi -= la;
+               } else {
+                    swap(a, lo, lo + la, lb, tmp);
+                    lo += lb;
+                    d = la - lb;
+               }
+          }
+     }
+
+     static void swap(Object[] a, int i, int j, int len, Object[] tmp) {
+          for (int done = 0; done < len; done += tmp.length) {
+               int c = Math.min(tmp.length, len - done);
+               System.arraycopy(a, i + done, tmp, 0, c);
+               System.arraycopy(a, j + done, a, i + done, c);
+               System.arraycopy(tmp, 0, a, j + done, c);
+          }
+     }
+
+     static void juggle(Object[] a, int d) {
+          int n = a.length;
+          for (int c = 0, cycles = gcd(n, d); c < cycles; c++) {
+               Object first = a[c];
+               int i = c;
+               while (true) {
+                    int j = i < n - d ? i + d : i - (n - d);
+                    if (j == c)
+                         break;
+                    a[i] = a[j];
+                    i = j;
+               }
+               a[i] = first;
+          }
+     }
+
+     static void reverse(Object[] a, int i, int j) {
+          for (; i < j; i++, j--) {
+               Object t = a[i];
+               a[i] = a[j];
+               a[j] = t;
+          }
+     }
+
+     /*
+      * The buffer versions of blockSwap, rotateLeft and swap. Elements are
+      * moved with absolute bulk get and put through the two scratch
+      * arrays, which a direct buffer turns into plain memory copies.
+      */
+     static void blockSwap(IntBuffer b, int lo, int hi, int d, int[] t1, int[] t2) {
+          while (true) {
+               int la = d, lb = hi - lo - d;
+               if (Math.min(la, lb) <= t1.length) {
+                    rotateLeft(b, lo, hi, d, t1, t2);
+                    return;
+               }
+               if (la <= lb) {
+                    swap(b, lo, hi - la, la, t1, t2);
+                    hi -= la;
+               } else {
+                    swap(b, lo, lo + la, lb, t1, t2);
+                    lo += lb;
+                    d = la - lb;
+               }
+          }
+     }
+
+     // the shorter side fits in t1; the longer one moves through t2 a chunk at a time
+     static void rotateLeft(IntBuffer b, int lo, int hi, int d, int[] t1, int[] t2) {
+          int len = hi - lo;
+          if (d <= len - d) {
+               b.get(lo, t1, 0, d);
+               // moving down: copy the chunks front to back
+               for (int done = 0; done < len - d; done += t2.length) {
+                    int c = Math.min(t2.length, len - d - done);
+                    b.get(lo + d + done, t2, 0, c);
+                    b.put(lo + done, t2, 0, c);
+               }
+               b.put(hi - d, t1, 0, d);
+          } else {
+               int m = len - d;
+               b.get(lo + d, t1, 0, m);
+               // moving up: copy the chunks back to front
+               for (int left = d; left > 0;) {
+                    int c = Math.min(t2.length, left);
+                    left -= c;
+                    b.get(lo + left, t2, 0, c);
+                    b.put(lo + m + left, t2, 0, c);
+               }
+               b.put(lo, t1, 0, m);
+          }
+     }
+
+     static void swap(IntBuffer b, int i, int j, int len, int[] t1, int[] t2) {
+          for (int done = 0; done < len; done += t1.length) {
+               int c = Math.min(t1.length, len - done);
+               b.get(i + done, t1, 0, c);
+               b.get(j + done, t2, 0, c);
+               b.put(i + done, t2, 0, c);
+               b.put(j + done, t1, 0, c);
+          }
+     }
+
+     static void blockSwap(LongBuffer b, int lo, int hi, int d, long[] t1, long[] t2) {
+          while (true) {
+               int la = d, lb = hi - lo - d;
+               if (Math.min(la, lb) <= t1.length) {
+                    rotateLeft(b, lo, hi, d, t1, t2);
+                    return;
+               }
+               if (la <= lb) {
+                    swap(b, lo, hi - la, la, t1, t2);
+                    hi -= la;
+               } else {
+                    swap(b, lo, lo + la, lb, t1, t2);
+                    lo += lb;
+                    d = la - lb;
+               }
+          }
+     }
+
+     static void rotateLeft(LongBuffer b, int lo, int hi, int d, long[] t1, long[] t2) {
+          int len = hi - lo;
+          if (d <= len - d) {
+               b.get(lo, t1, 0, d);
+               for (int done = 0; done < len - d; done += t2.length) {
+                    int c = Math.min(t2.length, len - d - done);
+                    b.get(lo + d + done, t2, 0, c);
+                    b.put(lo + done, t2, 0, c);
+               }
+               b.put(hi - d, t1, 0, d);
+          } else {
+               int m = len - d;
+               b.get(lo + d, t1, 0, m);
+               for (int left = d; left > 0;) {
+                    int c = Math.min(t2.length, left);
+                    left -= c;
+                    b.get(lo + left, t2, 0, c);
+                    b.put(lo + m + left, t2, 0, c);
+               }
+               b.put(lo, t1, 0, m);
+          }
+     }
+
+     static void swap(LongBuffer b, int i, int j, int len, long[] t1, long[] t2) {
+          for (int done = 0; done < len; done += t1.length) {
+               int c = Math.min(t1.length, len - done);
+               b.get(i + done, t1, 0, c);
+               b.get(j + done, t2, 0, c);
+               b.put(i + done, t2, 0, c);
+               b.put(j + done, t1, 0, c);
+          }
+     }
+
+     static int gcd(int a, int b) {
+          while (b != 0) {
+               int t = a % b;
+               a = b;
+               b = t;
+          }
+          return a;
+     }
+}
@@ -1,11 +1,30 @@
 package Sorting;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
+/*
+ * Bucket sort on one flat buffer.
+ *
+ * Elements are counted per bucket, the counts are prefix-summed into
+ * bucket offsets, and every element is scattered once into a single int[]
+ * (or double[]) buffer. Each bucket is then sorted in place inside that
+ * buffer and the buffer is copied back, so nothing is boxed and the extra
+ * memory is one array the size of the input.
+ *
+ * bucketSort(arr) picks the bucket boundaries from sampled quantiles of the
+ * data instead of a fixed width, so skewed inputs still spread evenly.
+ */
 public class BucketSort {
+     // target number of elements per bucket for the adaptive variant
+     static final int TARGET_BUCKET_SIZE = 64;
+     static final int MAX_SAMPLE = 1 << 12;
+     static final int INSERTION_THRESHOLD = 32;
+
      public void bucketSort(int[] arr, int bucketSize) {
+          if (bucketSize < 1) {
+               throw new IllegalArgumentException("bucketSize must be positive");
+          }
           if (arr.length == 0)
                return;
           int min = arr[0];
@@ -16,20 +35,172 @@ public class BucketSort {
                if (num > max)
                     max = num;
           }
-          int bucketCount = (max - min) / bucketSize + 1;
-          List<List<Integer>> buckets = new ArrayList<>(bucketCount);
-          for (int i = 0; i < bucketCount; i++) {
-               buckets.add(new ArrayList<>());
+          long bucketCount = ((long) max - min) / bucketSize + 1;
+          if (bucketCount > arr.length) {
+               // more buckets than elements only adds empty ones
+               bucketSize = (int) Math.min(Integer.MAX_VALUE, ((long) max - min) / arr.length + 1);
+               bucketCount = ((long) max - min) / bucketSize + 1;
+          }
+          int n = arr.length;
+          int start[] = new int[(int) bucketCount + 1];
+          for (int num : arr) {
+               start[(int) (((long) num - min) / bucketSize) + 1]++;
           }
+          prefixSum(start);
+          int next[] = Arrays.copyOf(start, start.length - 1);
+          int buf[] = new int[n];
           for (int num : arr) {
-               buckets.get((num - min) / bucketSize).add(num);
+               buf[next[(int) (((long) num - min) / bucketSize)]++] = num;
+          }
+          sortBuckets(buf, start, null);
+          System.arraycopy(buf, 0, arr, 0, n);
+     }
+
+     public void bucketSort(int[] arr) {
+          sortAdaptive(arr, null);
+     }
+
+     public void parallelBucketSort(int[] arr) {
+          sortAdaptive(arr, RadixSort.parallelPool(arr.length));
+     }
+
+     /*
+      * Keys must lie in [0, 1). Uses n buckets of equal width, so uniformly
+      * distributed keys land about one per bucket.
+      */
+     public void bucketSort(double[] arr) {
+          sortUnitInterval(arr, null);
+     }
+
+     public void parallelBucketSort(double[] arr) {
+          sortUnitInterval(arr, RadixSort.parallelPool(arr.length));
+     }
+
+     void sortAdaptive(int[] arr, ForkJoinPool pool) {
+          int n = arr.length;
+          if (n <= INSERTION_THRESHOLD) {
+               new InsertionSort().insertionSort(arr);
+               return;
+          }
+          int splitters[] = splitters(arr);
+          int bucketCount = splitters.length + 1;
+          int start[] = new int[bucketCount + 1];
+          for (int num : arr) {
+               start[bucketOf(splitters, num) + 1]++;
+          }
+          prefixSum(start);
+          int next[] = Arrays.copyOf(start, bucketCount);
+          int buf[] = new int[n];
+          for (int num : arr) {
+               buf[next[bucketOf(splitters, num)]++] = num;
+          }
+          sortBuckets(buf, start, pool);
+          System.arraycopy(buf, 0, arr, 0, n);
+     }
+
+     /*
+      * Bucket boundaries at evenly spaced quantiles of a sorted sample.
+      * Bucket b holds the keys in (splitters[b - 1], splitters[b]].
+      */
+     static int[] splitters(int[] arr) {
+          int n = arr.length;
+          int sampleSize = Math.min(n, MAX_SAMPLE);
+          int sample[] = new int[sampleSize];
+          for (int i = 0; i < sampleSize; i++) {
+               sample[i] = arr[(int) ((2L * i + 1) * n / (2L * sampleSize))];
           }
-          int idx = 0;
-          for (List<Integer> bucket : buckets) {
-               Collections.sort(bucket);
-               for (int num : bucket) {
-                    arr[idx++] = num;
+          Arrays.sort(sample);
+          int bucketCount = Math.max(2, Math.min(sampleSize, n / TARGET_BUCKET_SIZE));
+          int splitters[] = new int[bucketCount - 1];
+          int distinct = 0;
+          for (int b = 1; b < bucketCount; b++) {
+               int s = sample[(int) ((long) b * sampleSize / bucketCount)];
+               // repeated quantiles would only create empty buckets
+               if (distinct == 0 || splitters[distinct - 1] != s) {
+                    splitters[distinct++] = s;
                }
           }
+          return Arrays.copyOf(splitters, distinct);
+     }
+
+     // first b with key <= splitters[b], or splitters.length
+     static int bucketOf(int splitters[], int key) {
+          int lo = 0, hi = splitters.length;
+          while (lo < hi) {
+               int mid = (lo + hi) >>> 1;
+               if (splitters[mid] < key)
+                    lo = mid + 1;
+               else
+                    hi = mid;
+          }
+          return lo;
+     }
+
+     static void sortBuckets(int buf[], int start[], ForkJoinPool pool) {
+          int buckets = start.length - 1;
+          int chunks = pool == null ? 1 : RadixSort.chunkCount(buf.length, pool);
+          RadixSort.forEachChunk(pool, chunks, c -> {
+               int bounds[] = new int[4];
+               for (int b = RadixSort.chunkStart(buckets, chunks, c), end = RadixSort.chunkStart(buckets, chunks, c + 1); b < end; b++) {
+                    int lo = start[b], hi = start[b + 1] - 1;
+                    if (lo < hi)
+                         QuickSort.sort(buf, lo, hi, QuickSort.depthLimit(hi - lo + 1), bounds);
+               }
+          });
+     }
+
+     void sortUnitInterval(double[] arr, ForkJoinPool pool) {
+          int n = arr.length;
+          if (n < 2)
+               return;
+          int start[] = new int[n + 1];
+          for (double v : arr) {
+               if (!(v >= 0.0 && v < 1.0)) {
+                    throw new IllegalArgumentException("key " + v + " is outside [0, 1)");
+               }
+               start[unitBucket(v, n) + 1]++;
+          }
+          prefixSum(start);
+          int next[] = Arrays.copyOf(start, n);
+          double buf[] = new double[n];
+          for (double v : arr) {
+               buf[next[unitBucket(v, n)]++] = v;
+          }
+          int chunks = pool == null ? 1 : RadixSort.chunkCount(n, pool);
+          RadixSort.forEachChunk(pool, chunks, c -> {
+               for (int b = RadixSort.chunkStart(n, chunks, c), end = RadixSort.chunkStart(n, chunks, c + 1); b < end; b++) {
+                    int lo = start[b], hi = start[b + 1];
+                    if (hi - lo > INSERTION_THRESHOLD)
+                         Arrays.sort(buf, lo, hi);
+                    else
+                         insertionSort(buf, lo, hi);
+               }
+          });
+          System.arraycopy(buf, 0, arr, 0, n);
+     }
+
+     // v * n can round up to n for v just below 1
+     static int unitBucket(double v, int n) {
+          return Math.min(n - 1, (int) (v * n));
+     }
+
+     static void insertionSort(double arr[], int lo, int hi) {
+          for (int i = lo + 1; i < hi; i++) {
+               double key = arr[i];
+               int j = i - 1;
+               // Double.compare keeps -0.0 before 0.0, as Arrays.sort does
+               while (j >= lo && Double.compare(arr[j], key) > 0) {
+                    arr[j + 1] = arr[j];
+                    j--;
+               }
+               arr[j + 1] = key;
+          }
+     }
+
+     // turns per-bucket counts stored at start[b + 1] into start offsets
+     static void prefixSum(int start[]) {
+          for (int b = 1; b < start.length; b++) {
+               start[b] += start[b - 1];
+          }
      }
 }
@@ -1,26 +1,163 @@
 package Sorting;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
+/*
+ * Range-aware counting sort.
+ *
+ * Min and max are found in one pass. The count array is only allocated
+ * when the key range is at most maxRangeFactor * n and fits the memory
+ * budget; otherwise the array goes to RadixSort (or QuickSort when it is
+ * small), so a single outlier can no longer trigger a huge allocation.
+ *
+ * Keys carry no satellite data, so the sorted array is written straight
+ * from the counts and no output[] copy is needed.
+ */
 public class CountingSort {
+     public static final int DEFAULT_MAX_RANGE_FACTOR = 4;
+     public static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L << 20;
+     // below this size a comparison sort beats radix sort's fixed passes
+     static final int RADIX_FALLBACK_MIN_SIZE = 1 << 10;
+
+     private final int maxRangeFactor;
+     private final long memoryBudgetBytes;
+
+     public CountingSort() {
+          this(DEFAULT_MAX_RANGE_FACTOR, DEFAULT_MEMORY_BUDGET_BYTES);
+     }
+
+     public CountingSort(int maxRangeFactor, long memoryBudgetBytes) {
+          if (maxRangeFactor < 1 || memoryBudgetBytes < Integer.BYTES) {
+               throw new IllegalArgumentException("range factor and memory budget must be positive");
+          }
+          this.maxRangeFactor = maxRangeFactor;
+          this.memoryBudgetBytes = memoryBudgetBytes;
+     }
+
      public void countingSort(int[] arr) {
-          if (arr.length == 0)
+          sort(arr, null);
+     }
+
+     public void parallelCountingSort(int[] arr) {
+          sort(arr, RadixSort.parallelPool(arr.length));
+     }
+
+     /*
+      * Counts of every key in [min, max]: count[v - min] is the number of
+      * occurrences of v. Fails instead of allocating when the range is over
+      * the memory budget, and before counting when a key is outside it.
+      */
+     public int[] histogram(int[] arr, int min, int max) {
+          long range = (long) max - min + 1;
+          if (range <= 0 || range * Integer.BYTES > memoryBudgetBytes) {
+               throw new IllegalArgumentException("key range " + range + " exceeds the memory budget");
+          }
+          for (int v : arr) {
+               if (v < min || v > max) {
+                    throw new IllegalArgumentException("key " + v + " is outside [" + min + ", " + max + "]");
+               }
+          }
+          return count(arr, min, (int) range, RadixSort.parallelPool(arr.length));
+     }
+
+     void sort(int[] arr, ForkJoinPool pool) {
+          int n = arr.length;
+          if (n < 2)
+               return;
+          int min = arr[0];
+          int max = arr[0];
+          for (int i = 1; i < n; i++) {
+               int v = arr[i];
+               if (v < min)
+                    min = v;
+               else if (v > max)
+                    max = v;
+          }
+          if (min == max)
+               return;
+          long range = (long) max - min + 1;
+          if (range > (long) maxRangeFactor * n || range * Integer.BYTES > memoryBudgetBytes) {
+               if (n >= RADIX_FALLBACK_MIN_SIZE) {
+                    RadixSort.sortInts(arr, n, Integer.MIN_VALUE, pool);
+               } else {
+                    new QuickSort().quickSort(arr, 0, n - 1);
+               }
+               return;
+          }
+          int count[] = count(arr, min, (int) range, pool);
+          write(arr, count, min, pool);
+     }
+
+     int[] count(int[] arr, int min, int range, ForkJoinPool pool) {
+          int n = arr.length;
+          int chunks = pool == null ? 1 : RadixSort.chunkCount(n, pool);
+          // every extra chunk needs its own count array
+          while (chunks > 1 && (long) chunks * range * Integer.BYTES > memoryBudgetBytes) {
+               chunks--;
+          }
+          if (chunks == 1) {
+               int count[] = new int[range];
+               for (int i = 0; i < n; i++) {
+                    count[arr[i] - min]++;
+               }
+               return count;
+          }
+          int partial[][] = new int[chunks][range];
+          int parts = chunks;
+          RadixSort.forEachChunk(pool, parts, c -> {
+               int local[] = partial[c];
+               for (int i = RadixSort.chunkStart(n, parts, c), end = RadixSort.chunkStart(n, parts, c + 1); i < end; i++) {
+                    local[arr[i] - min]++;
+               }
+          });
+          // merge into the first histogram, each worker owning a slice of the keys
+          int count[] = partial[0];
+          RadixSort.forEachChunk(pool, parts, c -> {
+               for (int v = RadixSort.chunkStart(range, parts, c), end = RadixSort.chunkStart(range, parts, c + 1); v < end; v++) {
+                    int sum = count[v];
+                    for (int p = 1; p < parts; p++) {
+                         sum += partial[p][v];
+                    }
+                    count[v] = sum;
+               }
+          });
+          return count;
+     }
+
+     // overwrites arr with count[v] copies of every key v + min, in order
+     void write(int[] arr, int count[], int min, ForkJoinPool pool) {
+          int range = count.length;
+          int chunks = pool == null ? 1 : RadixSort.chunkCount(arr.length, pool);
+          if (chunks == 1) {
+               int pos = 0;
+               for (int v = 0; v < range; v++) {
+                    int c = count[v];
+                    if (c > 0) {
+                         Arrays.fill(arr, pos, pos + c, v + min);
+                         pos += c;
+                    }
+               }
                return;
-          int max = Arrays.stream(arr).max().getAsInt();
-          int min = Arrays.stream(arr).min().getAsInt();
-          int range = max - min + 1;
-          int count[] = new int[range];
-          int output[] = new int[arr.length];
-          for (int i = 0; i < arr.length; i++) {
-               count[arr[i] - min]++;
-          }
-          for (int i = 1; i < count.length; i++) {
-               count[i] += count[i - 1];
-          }
-          for (int i = arr.length - 1; i >= 0; i--) {
-               output[count[arr[i] - min] - 1] = arr[i];
-               count[arr[i] - min]--;
-          }
-          System.arraycopy(output, 0, arr, 0, arr.length);
+          }
+          // start position of every key slice, so the slices can be written independently
+          int start[] = new int[chunks];
+          int pos = 0;
+          for (int c = 0; c < chunks; c++) {
+               start[c] = pos;
+               for (int v = RadixSort.chunkStart(range, chunks, c), end = RadixSort.chunkStart(range, chunks, c + 1); v < end; v++) {
+                    pos += count[v];
+               }
+          }
+          RadixSort.forEachChunk(pool, chunks, c -> {
+               int at = start[c];
+               for (int v = RadixSort.chunkStart(range, chunks, c), end = RadixSort.chunkStart(range, chunks, c + 1); v < end; v++) {
+                    int k = count[v];
+                    if (k > 0) {
+                         Arrays.fill(arr, at, at + k, v + min);
+                         at += k;
+                    }
+               }
+          });
      }
 }
@@ -0,0 +1,542 @@
+package Sorting;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * External merge sort for binary files of fixed-width int or long keys that
+ * do not fit on the heap.
+ *
+ * Run phase: the input is memory-mapped one heap-sized chunk at a time,
+ * copied into a primitive array, sorted with Sorter and spilled to a temp
+ * run file. The next chunk is read on an I/O thread while the current one
+ * is sorted, and run files are written through two alternating buffers.
+ *
+ * Merge phase: up to maxFanIn runs are merged at once with a loser tree over
+ * primitive keys (one comparison per tree level per key). Every run is read
+ * through two alternating blocks, the next one prefetched in the background,
+ * and the output is written the same way. With more runs than maxFanIn,
+ * intermediate merge passes combine groups of runs first.
+ *
+ * Temp files never exceed tempSpaceLimit bytes; the sort fails with an
+ * IOException before writing past it.
+ */
+public class ExternalSort {
+     public enum KeyType {
+          INT(Integer.BYTES), LONG(Long.BYTES);
+
+          final int bytes;
+
+          KeyType(int bytes) {
+               this.bytes = bytes;
+          }
+     }
+
+     public static final int DEFAULT_MAX_FAN_IN = 64;
+     static final int IO_BLOCK_BYTES = 1 << 20;
+     static final int MIN_IO_BLOCK_BYTES = 1 << 16;
+
+     private final KeyType keyType;
+     private final long memoryBytes;
+     private final int maxFanIn;
+     private final long tempSpaceLimit;
+     private final Path tempDir;
+     private final ByteOrder order;
+
+     public ExternalSort(KeyType keyType, long memoryBytes, Path tempDir) {
+          this(keyType, memoryBytes, DEFAULT_MAX_FAN_IN, Long.MAX_VALUE, tempDir, ByteOrder.BIG_ENDIAN);
+     }
+
+     /*
+      * memoryBytes bounds the key arrays of the run phase: the chunk being
+      * sorted, the chunk being read and the sort's scratch buffer.
+      */
+     public ExternalSort(KeyType keyType, long memoryBytes, int maxFanIn, long tempSpaceLimit, Path tempDir,
+               ByteOrder order) {
+          if (maxFanIn < 2) {
+               throw new IllegalArgumentException("maxFanIn must be at least 2");
+          }
+          if (memoryBytes < 3L * keyType.bytes) {
+               throw new IllegalArgumentException("memory budget too small");
+          }
+          this.keyType = keyType;
+          this.memoryBytes = memoryBytes;
+          this.maxFanIn = maxFanIn;
+          this.tempSpaceLimit = tempSpaceLimit;
+          this.tempDir = tempDir;
+          this.order = order;
+     }
+
+     // what a sort did and how fast each phase moved data
+     public static final class Report {
+          public long keys;
+          public int runs;
+          public int mergePasses;
+          public int fanIn;
+          public long peakTempBytes;
+          public long runPhaseBytes, runPhaseNanos;
+          public long mergePhaseBytes, mergePhaseNanos;
+
+          public double runPhaseMBps() {
+               return mbPerSecond(runPhaseBytes, runPhaseNanos);
+          }
+
+          public double mergePhaseMBps() {
+               return mbPerSecond(mergePhaseBytes, mergePhaseNanos);
+          }
+
+          static double mbPerSecond(long bytes, long nanos) {
+               return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+          }
+
+          @Override
+          public String toString() {
+               return String.format("%d keys, %d runs, %d merge passes (fan-in %d), peak temp %d bytes, "
+                         + "run phase %.1f MB/s, merge phase %.1f MB/s",
+                         keys, runs, mergePasses, fanIn, peakTempBytes, runPhaseMBps(), mergePhaseMBps());
+          }
+     }
+
+     public Report sort(Path input, Path output) throws IOException {
+          Report report = new Report();
+          ExecutorService io = Executors.newCachedThreadPool(r -> {
+               Thread t = new Thread(r, "external-sort-io");
+               t.setDaemon(true);
+               return t;
+          });
+          List<Path> runs = new ArrayList<>();
+          try {
+               long start = System.nanoTime();
+               createRuns(input, output, runs, report, io);
+               report.runPhaseNanos = System.nanoTime() - start;
+               start = System.nanoTime();
+               if (!runs.isEmpty())
+                    mergeRuns(runs, output, report, io);
+               report.mergePhaseNanos = System.nanoTime() - start;
+               return report;
+          } finally {
+               io.shutdownNow();
+               for (Path run : runs) {
+                    Files.deleteIfExists(run);
+               }
+          }
+     }
+
+     // splits the input into sorted run files; an input that fits in one run goes straight to output
+     void createRuns(Path input, Path output, List<Path> runs, Report report, ExecutorService io) throws IOException {
+          int width = keyType.bytes;
+          try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+               long size = in.size();
+               if (size % width != 0) {
+                    throw new IOException(input + " is not a whole number of " + width + "-byte keys");
+               }
+               long total = size / width;
+               report.keys = total;
+               if (total == 0) {
+                    Files.write(output, new byte[0]);
+                    return;
+               }
+               // three arrays are live at once: sorting, prefetching, and the sort's scratch space
+               long perArray = Math.min(memoryBytes / 3 / width, Integer.MAX_VALUE / width);
+               int runKeys = (int) Math.max(1, Math.min(perArray, total));
+               boolean singleRun = total <= runKeys;
+               if (!singleRun && size > tempSpaceLimit) {
+                    throw new IOException("runs need " + size + " bytes of temp space, limit is " + tempSpaceLimit);
+               }
+               if (!singleRun)
+                    report.peakTempBytes = size;
+
+               // the second chunk is only needed to prefetch while the first one is sorted
+               Chunk sorting = new Chunk(keyType, runKeys);
+               Chunk reading = singleRun ? null : new Chunk(keyType, runKeys);
+               readChunk(in, 0, total, sorting);
+               long next = sorting.count;
+               while (sorting != null) {
+                    Future<?> pending = null;
+                    if (next < total) {
+                         Chunk target = reading;
+                         long from = next;
+                         pending = io.submit(() -> readChunk(in, from, total, target));
+                    }
+
+                    sorting.sort();
+                    Path target = singleRun ? output : Files.createTempFile(tempDir, "run", ".bin");
+                    if (!singleRun)
+                         runs.add(target);
+                    try (BlockWriter out = new BlockWriter(target, width, IO_BLOCK_BYTES, order, io)) {
+                         sorting.writeTo(out);
+                    }
+                    report.runPhaseBytes += (long) sorting.count * width;
+
+                    if (pending == null)
+                         break;
+                    await(pending);
+                    Chunk done = sorting;
+                    sorting = reading;
+                    reading = done;
+                    next += sorting.count;
+               }
+               report.runs = singleRun ? 1 : runs.size();
+          }
+     }
+
+     void readChunk(FileChannel in, long fromKey, long total, Chunk chunk) {
+          int width = keyType.bytes;
+          int count = (int) Math.min(chunk.capacity(), total - fromKey);
+          chunk.count = count;
+          if (count == 0)
+               return;
+          try {
+               MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, fromKey * width, (long) count * width);
+               map.order(order);
+               if (keyType == KeyType.INT)
+                    map.asIntBuffer().get(chunk.ints, 0, count);
+               else
+                    map.asLongBuffer().get(chunk.longs, 0, count);
+          } catch (IOException e) {
+               throw new UncheckedIOException(e);
+          }
+     }
+
+     void mergeRuns(List<Path> runs, Path output, Report report, ExecutorService io) throws IOException {
+          long live = 0;
+          for (Path run : runs) {
+               live += Files.size(run);
+          }
+          report.fanIn = Math.min(maxFanIn, runs.size());
+          while (runs.size() > maxFanIn) {
+               // intermediate pass: merge groups of maxFanIn runs into longer runs
+               List<Path> merged = new ArrayList<>();
+               // this pass's outputs are not in runs yet, so a failed pass must delete them here
+               List<Path> created = new ArrayList<>();
+               try {
+                    for (int g = 0; g < runs.size(); g += maxFanIn) {
+                         List<Path> group = runs.subList(g, Math.min(runs.size(), g + maxFanIn));
+                         if (group.size() == 1) {
+                              merged.add(group.get(0));
+                              continue;
+                         }
+                         long groupBytes = 0;
+                         for (Path run : group) {
+                              groupBytes += Files.size(run);
+                         }
+                         if (live + groupBytes > tempSpaceLimit) {
+                              throw new IOException("merge pass needs " + (live + groupBytes)
+                                        + " bytes of temp space, limit is " + tempSpaceLimit);
+                         }
+                         report.peakTempBytes = Math.max(report.peakTempBytes, live + groupBytes);
+                         Path target = Files.createTempFile(tempDir, "merge", ".bin");
+                         merged.add(target);
+                         created.add(target);
+                         merge(group, target, io);
+                         report.mergePhaseBytes += groupBytes;
+                         for (Path run : group) {
+                              Files.delete(run);
+                         }
+                    }
+               } catch (IOException | RuntimeException e) {
+                    for (Path target : created) {
+                         try {
+                              Files.deleteIfExists(target);
+                         } catch (IOException suppressed) {
+                              e.addSuppressed(suppressed);
+                         }
+                    }
+                    throw e;
+               }
+               runs.clear();
+               runs.addAll(merged);
+               report.mergePasses++;
+          }
+          merge(runs, output, io);
+          report.mergePhaseBytes += live;
+          report.mergePasses++;
+     }
+
+     // k-way merge of sorted run files into target through a loser tree
+     void merge(List<Path> runs, Path target, ExecutorService io) throws IOException {
+          int k = runs.size();
+          int width = keyType.bytes;
+          // every run and the output hold two blocks each; split the memory budget between them
+          int block = (int) Math.max(MIN_IO_BLOCK_BYTES, Math.min(IO_BLOCK_BYTES, memoryBytes / (2L * (k + 1))));
+          BlockReader readers[] = new BlockReader[k];
+          try (BlockWriter out = new BlockWriter(target, width, block, order, io)) {
+               for (int i = 0; i < k; i++) {
+                    readers[i] = new BlockReader(runs.get(i), width, block, order, io);
+               }
+               LoserTree tree = new LoserTree(readers);
+               while (tree.hasNext()) {
+                    out.put(tree.next());
+               }
+          } finally {
+               for (BlockReader reader : readers) {
+                    if (reader != null)
+                         reader.close();
+               }
+          }
+     }
+
+     static void await(Future<?> future) throws IOException {
+          try {
+               future.get();
+          } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new IOException("interrupted", e);
+          } catch (ExecutionException e) {
+               if (e.getCause() instanceof UncheckedIOException)
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+               throw new IOException(e.getCause());
+          }
+     }
+
+     // one heap-sized batch of keys
+     static final class Chunk {
+          final int ints[];
+          final long longs[];
+          int count;
+
+          Chunk(KeyType type, int capacity) {
+               ints = type == KeyType.INT ? new int[capacity] : null;
+               longs = type == KeyType.LONG ? new long[capacity] : null;
+          }
+
+          int capacity() {
+               return ints != null ? ints.length : longs.length;
+          }
+
+          void sort() {
+               Sorter sorter = new Sorter();
+               if (ints != null) {
+                    int keys[] = count == ints.length ? ints : Arrays.copyOf(ints, count);
+                    sorter.sort(keys);
+                    if (keys != ints)
+                         System.arraycopy(keys, 0, ints, 0, count);
+               } else {
+                    long keys[] = count == longs.length ? longs : Arrays.copyOf(longs, count);
+                    sorter.sort(keys);
+                    if (keys != longs)
+                         System.arraycopy(keys, 0, longs, 0, count);
+               }
+          }
+
+          void writeTo(BlockWriter out) throws IOException {
+               for (int i = 0; i < count; i++) {
+                    out.put(ints != null ? ints[i] : longs[i]);
+               }
+          }
+     }
+
+     /*
+      * Buffered key writer with two blocks: one is filled by the caller while
+      * the other is written on an I/O thread.
+      */
+     static final class BlockWriter implements AutoCloseable {
+          final FileChannel channel;
+          final int width;
+          final ExecutorService io;
+          ByteBuffer filling, writing;
+          Future<?> pending;
+
+          BlockWriter(Path path, int width, int blockBytes, ByteOrder order, ExecutorService io) throws IOException {
+               this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING);
+               this.width = width;
+               this.io = io;
+               this.filling = ByteBuffer.allocateDirect(blockBytes / width * width).order(order);
+               this.writing = ByteBuffer.allocateDirect(filling.capacity()).order(order);
+          }
+
+          void put(long key) throws IOException {
+               if (!filling.hasRemaining())
+                    flush();
+               if (width == Integer.BYTES)
+                    filling.putInt((int) key);
+               else
+                    filling.putLong(key);
+          }
+
+          void flush() throws IOException {
+               if (pending != null)
+                    await(pending);
+               ByteBuffer full = filling;
+               filling = writing;
+               writing = full;
+               filling.clear();
+               full.flip();
+               pending = io.submit(() -> {
+                    try {
+                         while (full.hasRemaining()) {
+                              channel.write(full);
+                         }
+                    } catch (IOException e) {
+                         throw new UncheckedIOException(e);
+                    }
+               });
+          }
+
+          @Override
+          public void close() throws IOException {
+               try {
+                    if (filling.position() > 0)
+                         flush();
+                    if (pending != null)
+                         await(pending);
+               } finally {
+                    channel.close();
+               }
+          }
+     }
+
+     /*
+      * Buffered key reader with two blocks: the caller consumes one while the
+      * next is read on an I/O thread.
+      */
+     static final class BlockReader implements AutoCloseable {
+          final FileChannel channel;
+          final int width;
+          final ExecutorService io;
+          ByteBuffer current, spare;
+          Future<ByteBuffer> pending;
+          boolean exhausted;
+
+          BlockReader(Path path, int width, int blockBytes, ByteOrder order, ExecutorService io) throws IOException {
+               this.channel = FileChannel.open(path, StandardOpenOption.READ);
+               this.width = width;
+               this.io = io;
+               this.current = ByteBuffer.allocateDirect(blockBytes / width * width).order(order);
+               this.spare = ByteBuffer.allocateDirect(current.capacity()).order(order);
+               current.limit(0);
+               pending = prefetch(spare);
+          }
+
+          Future<ByteBuffer> prefetch(ByteBuffer buffer) {
+               return io.submit(() -> {
+                    buffer.clear();
+                    // keep reading until the block is full or the file ends, so keys never straddle blocks
+                    while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    }
+                    buffer.flip();
+                    return buffer;
+               });
+          }
+
+          boolean hasNext() throws IOException {
+               if (current.hasRemaining())
+                    return true;
+               if (exhausted)
+                    return false;
+               ByteBuffer next;
+               try {
+                    next = pending.get();
+               } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted", e);
+               } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+               }
+               if (!next.hasRemaining()) {
+                    exhausted = true;
+                    return false;
+               }
+               spare = current;
+               current = next;
+               pending = prefetch(spare);
+               return true;
+          }
+
+          long next() {
+               return width == Integer.BYTES ? current.getInt() : current.getLong();
+          }
+
+          @Override
+          public void close() throws IOException {
+               if (pending != null)
+                    pending.cancel(false);
+               channel.close();
+          }
+     }
+
+     /*
+      * Tournament tree of losers over k sorted sources. tree[0] is the
+      * overall winner; each internal node keeps the loser of its match, so
+      * replacing the winner replays only the log2(k) matches on its path.
+      */
+     static final class LoserTree {
+          final BlockReader sources[];
+          final long keys[];
+          final boolean done[];
+          final int tree[];
+          final int k;
+
+          LoserTree(BlockReader sources[]) throws IOException {
+               this.sources = sources;
+               this.k = sources.length;
+               this.keys = new long[k];
+               this.done = new boolean[k];
+               this.tree = new int[Math.max(1, k)];
+               for (int i = 0; i < k; i++) {
+                    advance(i);
+               }
+               tree[0] = k == 1 ? 0 : build(1);
+          }
+
+          // returns the winner of the subtree at node; leaves are k..2k-1
+          int build(int node) {
+               if (node >= k)
+                    return node - k;
+               int left = build(2 * node), right = build(2 * node + 1);
+               if (beats(left, right)) {
+                    tree[node] = right;
+                    return left;
+               }
+               tree[node] = left;
+               return right;
+          }
+
+          boolean beats(int a, int b) {
+               if (done[a] || done[b])
+                    return !done[a];
+               return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+          }
+
+          void advance(int i) throws IOException {
+               if (sources[i].hasNext())
+                    keys[i] = sources[i].next();
+               else
+                    done[i] = true;
+          }
+
+          boolean hasNext() {
+               return !done[tree[0]];
+          }
+
+          long next() throws IOException {
+               int winner = tree[0];
+               long key = keys[winner];
+               advance(winner);
+               for (int node = (winner + k) >> 1; node >= 1; node >>= 1) {
+                    if (beats(tree[node], winner)) {
+                         int loser = winner;
+                         winner = tree[node];
+                         tree[node] = loser;
+                    }
+               }
+               tree[0] = winner;
+               return key;
+          }
+     }
+}
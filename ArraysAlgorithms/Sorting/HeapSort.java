@@ -1,5 +1,8 @@
 package Sorting;
 
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
 public class HeapSort {
      public void heapSort(int arr[]) {
           int n = arr.length;
@@ -31,4 +34,82 @@ public class HeapSort {
                heapify(arr, n, largest);
           }
      }
+
+     // sorts arr[lo..hi] (both inclusive), used as the introsort fallback in QuickSort
+     public void heapSort(int arr[], int lo, int hi) {
+          int n = hi - lo + 1;
+          for (int i = n / 2 - 1; i >= 0; i--) {
+               heapify(arr, lo, n, i);
+          }
+          for (int i = n - 1; i > 0; i--) {
+               int temp = arr[lo];
+               arr[lo] = arr[lo + i];
+               arr[lo + i] = temp;
+               heapify(arr, lo, i, 0);
+          }
+     }
+
+     // heapify on the n-element heap stored at arr[offset..offset+n-1]
+     void heapify(int arr[], int offset, int n, int i) {
+          int value = arr[offset + i];
+          while (true) {
+               int largest = 2 * i + 1;
+               if (largest >= n)
+                    break;
+               if (largest + 1 < n && arr[offset + largest + 1] > arr[offset + largest]) {
+                    largest++;
+               }
+               if (arr[offset + largest] <= value)
+                    break;
+               arr[offset + i] = arr[offset + largest];
+               i = largest;
+          }
+          arr[offset + i] = value;
+     }
+
+     // sorts the keys between the buffer's position and limit in place
+     public void heapSort(IntBuffer buf) {
+          heapSort(IndexedKeys.of(buf));
+     }
+
+     public void heapSort(LongBuffer buf) {
+          heapSort(IndexedKeys.of(buf));
+     }
+
+     public void heapSort(IndexedKeys keys) {
+          heapSort(keys, 0, keys.size() - 1);
+     }
+
+     void heapSort(IndexedKeys keys, int lo, int hi) {
+          int n = hi - lo + 1;
+          for (int i = n / 2 - 1; i >= 0; i--) {
+               heapify(keys, lo, n, i);
+          }
+          for (int i = n - 1; i > 0; i--) {
+               keys.swap(lo, lo + i);
+               heapify(keys, lo, i, 0);
+          }
+     }
+
+     void heapify(IndexedKeys keys, int offset, int n, int i) {
+          long value = keys.get(offset + i);
+          while (true) {
+               int largest = 2 * i + 1;
+               if (largest >= n)
+                    break;
+               long child = keys.get(offset + largest);
+               if (largest + 1 < n) {
+                    long right = keys.get(offset + largest + 1);
+                    if (right > child) {
+                         largest++;
+                         child = right;
+                    }
+               }
+               if (child <= value)
+                    break;
+               keys.set(offset + i, child);
+               i = largest;
+          }
+          keys.set(offset + i, value);
+     }
 }
@@ -0,0 +1,97 @@
+package Sorting;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/*
+ * Random access to a column of int or long keys that does not have to be
+ * a Java array, so HeapSort, QuickSort and RadixSort can sort keys kept
+ * off the heap (direct or mapped buffers) in place, without copying them
+ * into an int[] and back.
+ *
+ * Keys are widened to long. bytes() is the width of a stored key; the
+ * radix sort uses it to skip the digits an int key does not have.
+ *
+ * The sorters call get and set in their inner loops and rely on the JIT
+ * inlining them, so implementations should be small final classes.
+ */
+public interface IndexedKeys {
+     int size();
+
+     long get(int i);
+
+     void set(int i, long value);
+
+     int bytes();
+
+     default void swap(int i, int j) {
+          long t = get(i);
+          set(i, get(j));
+          set(j, t);
+     }
+
+     // the keys between the buffer's position and limit; index 0 is the position
+     static IndexedKeys of(IntBuffer buf) {
+          return new IntBufferKeys(buf.slice());
+     }
+
+     static IndexedKeys of(LongBuffer buf) {
+          return new LongBufferKeys(buf.slice());
+     }
+
+     final class IntBufferKeys implements IndexedKeys {
+          private final IntBuffer buf;
+
+          IntBufferKeys(IntBuffer buf) {
+               this.buf = buf;
+          }
+
+          @Override
+          public int size() {
+               return buf.limit();
+          }
+
+          @Override
+          public long get(int i) {
+               return buf.get(i);
+          }
+
+          @Override
+          public void set(int i, long value) {
+               buf.put(i, (int) value);
+          }
+
+          @Override
+          public int bytes() {
+               return Integer.BYTES;
+          }
+     }
+
+     final class LongBufferKeys implements IndexedKeys {
+          private final LongBuffer buf;
+
+          LongBufferKeys(LongBuffer buf) {
+               this.buf = buf;
+          }
+
+          @Override
+          public int size() {
+               return buf.limit();
+          }
+
+          @Override
+          public long get(int i) {
+               return buf.get(i);
+          }
+
+          @Override
+          public void set(int i, long value) {
+               buf.put(i, value);
+          }
+
+          @Override
+          public int bytes() {
+               return Long.BYTES;
+          }
+     }
+}
@@ -13,4 +13,30 @@ public class InsertionSort {
                arr[j + 1] = key;
           }
      }
+
+     // sorts arr[lo..hi] (both inclusive), used by the hybrid sorters for small ranges
+     public void insertionSort(int arr[], int lo, int hi) {
+          for (int i = lo + 1; i <= hi; ++i) {
+               int key = arr[i];
+               int j = i - 1;
+               while (j >= lo && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j = j - 1;
+               }
+               arr[j + 1] = key;
+          }
+     }
+
+     public void insertionSort(IndexedKeys keys, int lo, int hi) {
+          for (int i = lo + 1; i <= hi; ++i) {
+               long key = keys.get(i);
+               int j = i - 1;
+               long prev;
+               while (j >= lo && (prev = keys.get(j)) > key) {
+                    keys.set(j + 1, prev);
+                    j = j - 1;
+               }
+               keys.set(j + 1, key);
+          }
+     }
 }
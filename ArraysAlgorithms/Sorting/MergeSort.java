@@ -1,6 +1,16 @@
 package Sorting;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class MergeSort {
+     // ranges at or below this length are insertion sorted
+     public static final int DEFAULT_INSERTION_CUTOFF = 32;
+     // ranges at or below this length are sorted/merged on the current thread
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+     private static final InsertionSort INSERTION = new InsertionSort();
+
      public void mergeSort(int arr[], int l, int r) {
           if (l < r) {
                int m = l + (r - l) / 2;
@@ -44,4 +54,152 @@ public class MergeSort {
                k++;
           }
      }
+
+     /*
+      * Parallel merge sort on the common ForkJoinPool.
+      *
+      * One auxiliary copy of the array is allocated up front; every level
+      * merges from one buffer into the other (ping-pong), so no merge
+      * allocates. Ranges at or below insertionCutoff are insertion sorted,
+      * and halves that are already in order are copied instead of merged.
+      * Large merges are split by binary search so the top levels run in
+      * parallel as well.
+      */
+     public void parallelMergeSort(int arr[]) {
+          parallelMergeSort(arr, DEFAULT_INSERTION_CUTOFF, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+     }
+
+     public void parallelMergeSort(int arr[], int insertionCutoff, int parallelThreshold, ForkJoinPool pool) {
+          if (insertionCutoff < 1 || parallelThreshold < 1) {
+               throw new IllegalArgumentException("cutoff and threshold must be positive");
+          }
+          if (arr.length < 2)
+               return;
+          int aux[] = arr.clone();
+          SortTask task = new SortTask(aux, arr, 0, arr.length, insertionCutoff, parallelThreshold);
+          if (arr.length <= parallelThreshold)
+               task.compute();
+          else
+               pool.invoke(task);
+     }
+
+     /*
+      * Sorts dst[lo, hi) using src[lo, hi) as scratch. On entry both hold
+      * the same values for the range; on exit dst is sorted.
+      */
+     static final class SortTask extends RecursiveAction {
+          private static final long serialVersionUID = 1L;
+
+          final int src[], dst[];
+          final int lo, hi, insertionCutoff, parallelThreshold;
+
+          SortTask(int src[], int dst[], int lo, int hi, int insertionCutoff, int parallelThreshold) {
+               this.src = src;
+               this.dst = dst;
+               this.lo = lo;
+               this.hi = hi;
+               this.insertionCutoff = insertionCutoff;
+               this.parallelThreshold = parallelThreshold;
+          }
+
+          @Override
+          protected void compute() {
+               int len = hi - lo;
+               if (len <= insertionCutoff) {
+                    INSERTION.insertionSort(dst, lo, hi - 1);
+                    return;
+               }
+               int mid = (lo + hi) >>> 1;
+               // sort both halves into src, then merge them back into dst
+               SortTask left = new SortTask(dst, src, lo, mid, insertionCutoff, parallelThreshold);
+               SortTask right = new SortTask(dst, src, mid, hi, insertionCutoff, parallelThreshold);
+               if (len <= parallelThreshold) {
+                    left.compute();
+                    right.compute();
+               } else {
+                    invokeAll(left, right);
+               }
+               if (src[mid - 1] <= src[mid]) {
+                    System.arraycopy(src, lo, dst, lo, len);
+               } else if (len <= parallelThreshold) {
+                    mergeRuns(src, lo, mid, mid, hi, dst, lo);
+               } else {
+                    new MergeTask(src, lo, mid, mid, hi, dst, lo, parallelThreshold).compute();
+               }
+          }
+     }
+
+     // merges src[a, aEnd) and src[b, bEnd) into dst starting at out, splitting large merges
+     static final class MergeTask extends RecursiveAction {
+          private static final long serialVersionUID = 1L;
+
+          final int src[], dst[];
+          final int a, aEnd, b, bEnd, out, parallelThreshold;
+
+          MergeTask(int src[], int a, int aEnd, int b, int bEnd, int dst[], int out, int parallelThreshold) {
+               this.src = src;
+               this.a = a;
+               this.aEnd = aEnd;
+               this.b = b;
+               this.bEnd = bEnd;
+               this.dst = dst;
+               this.out = out;
+               this.parallelThreshold = parallelThreshold;
+          }
+
+          @Override
+          protected void compute() {
+               int n1 = aEnd - a, n2 = bEnd - b;
+               if (n1 + n2 <= parallelThreshold) {
+                    mergeRuns(src, a, aEnd, b, bEnd, dst, out);
+                    return;
+               }
+               // split the longer run at its middle and the other at the matching rank
+               int aMid, bMid;
+               if (n1 >= n2) {
+                    aMid = (a + aEnd) >>> 1;
+                    bMid = lowerBound(src, b, bEnd, src[aMid]);
+               } else {
+                    bMid = (b + bEnd) >>> 1;
+                    aMid = upperBound(src, a, aEnd, src[bMid]);
+               }
+               int outMid = out + (aMid - a) + (bMid - b);
+               invokeAll(new MergeTask(src, a, aMid, b, bMid, dst, out, parallelThreshold),
+                         new MergeTask(src, aMid, aEnd, bMid, bEnd, dst, outMid, parallelThreshold));
+          }
+     }
+
+     static void mergeRuns(int src[], int a, int aEnd, int b, int bEnd, int dst[], int out) {
+          while (a < aEnd && b < bEnd) {
+               dst[out++] = src[a] <= src[b] ? src[a++] : src[b++];
+          }
+          if (a < aEnd)
+               System.arraycopy(src, a, dst, out, aEnd - a);
+          else if (b < bEnd)
+               System.arraycopy(src, b, dst, out, bEnd - b);
+     }
+
+     // first index in [lo, hi) with arr[i] >= key
+     static int lowerBound(int arr[], int lo, int hi, int key) {
+          while (lo < hi) {
+               int mid = (lo + hi) >>> 1;
+               if (arr[mid] < key)
+                    lo = mid + 1;
+               else
+                    hi = mid;
+          }
+          return lo;
+     }
+
+     // first index in [lo, hi) with arr[i] > key
+     static int upperBound(int arr[], int lo, int hi, int key) {
+          while (lo < hi) {
+               int mid = (lo + hi) >>> 1;
+               if (arr[mid] <= key)
+                    lo = mid + 1;
+               else
+                    hi = mid;
+          }
+          return lo;
+     }
 }
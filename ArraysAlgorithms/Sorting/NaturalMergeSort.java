@@ -0,0 +1,402 @@
+package Sorting;
+
+/*
+ * Adaptive natural merge sort for nearly sorted data (a TimSort for int[]).
+ *
+ * - the input is scanned for runs; strictly descending runs are reversed in
+ *   place, so reversed input costs one pass
+ * - runs shorter than minRun are extended with binary insertion sort
+ * - runs are kept on a stack whose lengths grow like Fibonacci numbers, so
+ *   merges stay balanced and the stack needs O(log n) entries
+ * - merges first trim the parts of both runs that are already in place,
+ *   then switch to galloping (exponential search) when one run keeps
+ *   winning, so merging interleaved blocks costs O(log) per block
+ *
+ * Sorted or reversed input is O(n); random input is O(n log n) with one
+ * temp buffer of at most n/2 elements, reused by every merge.
+ */
+public class NaturalMergeSort {
+     static final int MIN_MERGE = 32;
+     static final int MIN_GALLOP = 7;
+     static final int MAX_RUN_STACK = 64;
+
+     public void naturalMergeSort(int arr[]) {
+          naturalMergeSort(arr, 0, arr.length - 1);
+     }
+
+     // sorts arr[lo..hi], both inclusive, like MergeSort.mergeSort
+     public void naturalMergeSort(int arr[], int lo, int hi) {
+          int n = hi - lo + 1;
+          if (n < 2)
+               return;
+          if (n < MIN_MERGE) {
+               int runLen = countRunAndMakeAscending(arr, lo, hi + 1);
+               binarySort(arr, lo, hi + 1, lo + runLen);
+               return;
+          }
+          new Merger(arr, n).sort(lo, hi + 1);
+     }
+
+     static int minRunLength(int n) {
+          int r = 0;
+          while (n >= MIN_MERGE) {
+               r |= (n & 1);
+               n >>= 1;
+          }
+          return n + r;
+     }
+
+     // length of the run starting at lo in arr[lo, hi); a descending run is reversed first
+     static int countRunAndMakeAscending(int arr[], int lo, int hi) {
+          int runHi = lo + 1;
+          if (runHi == hi)
+               return 1;
+          if (arr[runHi++] < arr[lo]) {
+               // strictly descending, so reversing cannot reorder equal keys
+               while (runHi < hi && arr[runHi] < arr[runHi - 1]) {
+                    runHi++;
+               }
+               reverse(arr, lo, runHi - 1);
+          } else {
+               while (runHi < hi && arr[runHi] >= arr[runHi - 1]) {
+                    runHi++;
+               }
+          }
+          return runHi - lo;
+     }
+
+     static void reverse(int arr[], int lo, int hi) {
+          while (lo < hi) {
+               int temp = arr[lo];
+               arr[lo++] = arr[hi];
+               arr[hi--] = temp;
+          }
+     }
+
+     // insertion sort of arr[lo, hi) where arr[lo, start) is already sorted
+     static void binarySort(int arr[], int lo, int hi, int start) {
+          for (; start < hi; start++) {
+               int pivot = arr[start];
+               int left = lo, right = start;
+               while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (pivot < arr[mid])
+                         right = mid;
+                    else
+                         left = mid + 1;
+               }
+               System.arraycopy(arr, left, arr, left + 1, start - left);
+               arr[left] = pivot;
+          }
+     }
+
+     /*
+      * Leftmost position to insert key into arr[base, base + len), searching
+      * outward from base + hint: arr[base + k - 1] < key <= arr[base + k].
+      */
+     static int gallopLeft(int key, int arr[], int base, int len, int hint) {
+          int lastOfs = 0, ofs = 1;
+          if (key > arr[base + hint]) {
+               int maxOfs = len - hint;
+               while (ofs < maxOfs && key > arr[base + hint + ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0)
+                         ofs = maxOfs;
+               }
+               if (ofs > maxOfs)
+                    ofs = maxOfs;
+               lastOfs += hint;
+               ofs += hint;
+          } else {
+               int maxOfs = hint + 1;
+               while (ofs < maxOfs && key <= arr[base + hint - ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0)
+                         ofs = maxOfs;
+               }
+               if (ofs > maxOfs)
+                    ofs = maxOfs;
+               int temp = lastOfs;
+               lastOfs = hint - ofs;
+               ofs = hint - temp;
+          }
+          lastOfs++;
+          while (lastOfs < ofs) {
+               int mid = lastOfs + ((ofs - lastOfs) >>> 1);
+               if (key > arr[base + mid])
+                    lastOfs = mid + 1;
+               else
+                    ofs = mid;
+          }
+          return ofs;
+     }
+
+     // rightmost insertion position: arr[base + k - 1] <= key < arr[base + k]
+     static int gallopRight(int key, int arr[], int base, int len, int hint) {
+          int lastOfs = 0, ofs = 1;
+          if (key < arr[base + hint]) {
+               int maxOfs = hint + 1;
+               while (ofs < maxOfs && key < arr[base + hint - ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0)
+                         ofs = maxOfs;
+               }
+               if (ofs > maxOfs)
+                    ofs = maxOfs;
+               int temp = lastOfs;
+               lastOfs = hint - ofs;
+               ofs = hint - temp;
+          } else {
+               int maxOfs = len - hint;
+               while (ofs < maxOfs && key >= arr[base + hint + ofs]) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0)
+                         ofs = maxOfs;
+               }
+               if (ofs > maxOfs)
+                    ofs = maxOfs;
+               lastOfs += hint;
+               ofs += hint;
+          }
+          lastOfs++;
+          while (lastOfs < ofs) {
+               int mid = lastOfs + ((ofs - lastOfs) >>> 1);
+               if (key < arr[base + mid])
+                    ofs = mid;
+               else
+                    lastOfs = mid + 1;
+          }
+          return ofs;
+     }
+
+     // state of one sort: the array, the shared temp buffer and the run stack
+     static final class Merger {
+          final int arr[];
+          final int maxTemp;
+          int temp[];
+          int minGallop = MIN_GALLOP;
+          final int runBase[] = new int[MAX_RUN_STACK];
+          final int runLen[] = new int[MAX_RUN_STACK];
+          int stackSize = 0;
+
+          Merger(int arr[], int n) {
+               this.arr = arr;
+               this.maxTemp = n >>> 1;
+               this.temp = new int[Math.min(maxTemp, 256)];
+          }
+
+          void sort(int lo, int hi) {
+               int remaining = hi - lo;
+               int minRun = minRunLength(remaining);
+               do {
+                    int runLen = countRunAndMakeAscending(arr, lo, hi);
+                    if (runLen < minRun) {
+                         int force = Math.min(remaining, minRun);
+                         binarySort(arr, lo, lo + force, lo + runLen);
+                         runLen = force;
+                    }
+                    pushRun(lo, runLen);
+                    mergeCollapse();
+                    lo += runLen;
+                    remaining -= runLen;
+               } while (remaining != 0);
+               mergeForceCollapse();
+          }
+
+          void pushRun(int base, int len) {
+               runBase[stackSize] = base;
+               runLen[stackSize] = len;
+               stackSize++;
+          }
+
+          // restores runLen[i - 2] > runLen[i - 1] + runLen[i] and runLen[i - 1] > runLen[i]
+          void mergeCollapse() {
+               while (stackSize > 1) {
+                    int n = stackSize - 2;
+                    if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                              || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                         if (runLen[n - 1] < runLen[n + 1])
+                              n--;
+                    } else if (runLen[n] > runLen[n + 1]) {
+                         break;
+                    }
+                    mergeAt(n);
+               }
+          }
+
+          void mergeForceCollapse() {
+               while (stackSize > 1) {
+                    int n = stackSize - 2;
+                    if (n > 0 && runLen[n - 1] < runLen[n + 1])
+                         n--;
+                    mergeAt(n);
+               }
+          }
+
+          // merges stack runs i and i + 1
+          void mergeAt(int i) {
+               int base1 = runBase[i], len1 = runLen[i];
+               int base2 = runBase[i + 1], len2 = runLen[i + 1];
+               runLen[i] = len1 + len2;
+               if (i == stackSize - 3) {
+                    runBase[i + 1] = runBase[i + 2];
+                    runLen[i + 1] = runLen[i + 2];
+               }
+               stackSize--;
+
+               // elements of run1 that are <= the first of run2 are already in place
+               int k = gallopRight(arr[base2], arr, base1, len1, 0);
+               base1 += k;
+               len1 -= k;
+               if (len1 == 0)
+                    return;
+               // elements of run2 that are >= the last of run1 are already in place
+               len2 = gallopLeft(arr[base1 + len1 - 1], arr, base2, len2, len2 - 1);
+               if (len2 == 0)
+                    return;
+               if (len1 <= len2)
+                    mergeLo(base1, len1, base2, len2);
+               else
+                    mergeHi(base1, len1, base2, len2);
+          }
+
+          int[] ensureCapacity(int needed) {
+               if (temp.length < needed) {
+                    int size = Integer.highestOneBit(needed) << 1;
+                    if (size <= 0 || size > maxTemp)
+                         size = Math.max(needed, maxTemp);
+                    temp = new int[size];
+               }
+               return temp;
+          }
+
+          // merges left to right; run1 (the shorter one) is copied to temp
+          void mergeLo(int base1, int len1, int base2, int len2) {
+               int a[] = arr;
+               int tmp[] = ensureCapacity(len1);
+               System.arraycopy(a, base1, tmp, 0, len1);
+               int c1 = 0, c2 = base2, dest = base1;
+               int end1 = len1, end2 = base2 + len2;
+               int minGallop = this.minGallop;
+               outer: while (c1 < end1 && c2 < end2) {
+                    int count1 = 0, count2 = 0;
+                    while (c1 < end1 && c2 < end2) {
+                         if (a[c2] < tmp[c1]) {
+                              a[dest++] = a[c2++];
+                              count2++;
+                              count1 = 0;
+                              if (count2 >= minGallop)
+                                   break;
+                         } else {
+                              a[dest++] = tmp[c1++];
+                              count1++;
+                              count2 = 0;
+                              if (count1 >= minGallop)
+                                   break;
+                         }
+                    }
+                    if (c1 >= end1 || c2 >= end2)
+                         break;
+                    do {
+                         count1 = gallopRight(a[c2], tmp, c1, end1 - c1, 0);
+                         if (count1 != 0) {
+                              System.arraycopy(tmp, c1, a, dest, count1);
+                              dest += count1;
+                              c1 += count1;
+                              if (c1 >= end1)
+                                   break outer;
+                         }
+                         a[dest++] = a[c2++];
+                         if (c2 >= end2)
+                              break outer;
+                         count2 = gallopLeft(tmp[c1], a, c2, end2 - c2, 0);
+                         if (count2 != 0) {
+                              System.arraycopy(a, c2, a, dest, count2);
+                              dest += count2;
+                              c2 += count2;
+                              if (c2 >= end2)
+                                   break outer;
+                         }
+                         a[dest++] = tmp[c1++];
+                         if (c1 >= end1)
+                              break outer;
+                         minGallop--;
+                    } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                    if (minGallop < 0)
+                         minGallop = 0;
+                    // leaving galloping mode costs; make it harder to re-enter
+                    minGallop += 2;
+               }
+               this.minGallop = Math.max(1, minGallop);
+               // whatever is left of run2 is already in place
+               if (c1 < end1)
+                    System.arraycopy(tmp, c1, a, dest, end1 - c1);
+          }
+
+          // merges right to left; run2 (the shorter one) is copied to temp
+          void mergeHi(int base1, int len1, int base2, int len2) {
+               int a[] = arr;
+               int tmp[] = ensureCapacity(len2);
+               System.arraycopy(a, base2, tmp, 0, len2);
+               int c1 = base1 + len1 - 1, c2 = len2 - 1;
+               int dest = base2 + len2 - 1;
+               int minGallop = this.minGallop;
+               outer: while (c1 >= base1 && c2 >= 0) {
+                    int count1 = 0, count2 = 0;
+                    while (c1 >= base1 && c2 >= 0) {
+                         if (tmp[c2] < a[c1]) {
+                              a[dest--] = a[c1--];
+                              count1++;
+                              count2 = 0;
+                              if (count1 >= minGallop)
+                                   break;
+                         } else {
+                              a[dest--] = tmp[c2--];
+                              count2++;
+                              count1 = 0;
+                              if (count2 >= minGallop)
+                                   break;
+                         }
+                    }
+                    if (c1 < base1 || c2 < 0)
+                         break;
+                    do {
+                         count1 = (c1 - base1 + 1) - gallopRight(tmp[c2], a, base1, c1 - base1 + 1, c1 - base1);
+                         if (count1 != 0) {
+                              dest -= count1;
+                              c1 -= count1;
+                              System.arraycopy(a, c1 + 1, a, dest + 1, count1);
+                              if (c1 < base1)
+                                   break outer;
+                         }
+                         a[dest--] = tmp[c2--];
+                         if (c2 < 0)
+                              break outer;
+                         count2 = (c2 + 1) - gallopLeft(a[c1], tmp, 0, c2 + 1, c2);
+                         if (count2 != 0) {
+                              dest -= count2;
+                              c2 -= count2;
+                              System.arraycopy(tmp, c2 + 1, a, dest + 1, count2);
+                              if (c2 < 0)
+                                   break outer;
+                         }
+                         a[dest--] = a[c1--];
+                         if (c1 < base1)
+                              break outer;
+                         minGallop--;
+                    } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                    if (minGallop < 0)
+                         minGallop = 0;
+                    minGallop += 2;
+               }
+               this.minGallop = Math.max(1, minGallop);
+               // whatever is left of run1 is already in place
+               if (c2 >= 0)
+                    System.arraycopy(tmp, 0, a, dest - c2, c2 + 1);
+          }
+     }
+}
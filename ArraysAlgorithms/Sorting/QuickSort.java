@@ -1,28 +1,411 @@
 package Sorting;
 
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Introsort-style hybrid quicksort.
+ *
+ * - pivots: two of five evenly spaced samples; on large ranges each sample
+ *   is first replaced by the median of itself and two neighbours (ninther)
+ * - partitioning: dual-pivot (< p1, p1..p2, > p2); when both pivots are
+ *   equal a three-way partition groups every duplicate of the pivot at once
+ * - the largest part is handled by the loop and only the two smaller parts
+ *   recurse, so the stack stays O(log n)
+ * - past 2*log2(n) levels the range is finished with heap sort, and ranges
+ *   of INSERTION_THRESHOLD or fewer elements with insertion sort
+ *
+ * The IntBuffer/LongBuffer overloads run the same algorithm in place on
+ * keys kept off the heap, through IndexedKeys.
+ */
 public class QuickSort {
+     static final int INSERTION_THRESHOLD = 24;
+     static final int NINTHER_THRESHOLD = 1 << 9;
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 14;
+
+     private static final InsertionSort INSERTION = new InsertionSort();
+     private static final HeapSort HEAP = new HeapSort();
+
      public void quickSort(int arr[], int begin, int end) {
           if (begin < end) {
-               int partitionIndex = partition(arr, begin, end);
-               quickSort(arr, begin, partitionIndex - 1);
-               quickSort(arr, partitionIndex + 1, end);
+               sort(arr, begin, end, depthLimit(end - begin + 1), new int[4]);
+          }
+     }
+
+     public void parallelQuickSort(int arr[]) {
+          parallelQuickSort(arr, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+     }
+
+     public void parallelQuickSort(int arr[], int parallelThreshold, ForkJoinPool pool) {
+          if (parallelThreshold < 1) {
+               throw new IllegalArgumentException("threshold must be positive");
+          }
+          if (arr.length < 2)
+               return;
+          int depth = depthLimit(arr.length);
+          if (arr.length <= parallelThreshold)
+               sort(arr, 0, arr.length - 1, depth, new int[4]);
+          else
+               pool.invoke(new SortTask(arr, 0, arr.length - 1, depth, parallelThreshold));
+     }
+
+     static int depthLimit(int n) {
+          return 2 * (31 - Integer.numberOfLeadingZeros(n));
+     }
+
+     // sorts arr[lo..hi]; bounds is scratch space for partition()
+     static void sort(int arr[], int lo, int hi, int depth, int bounds[]) {
+          while (hi - lo + 1 > INSERTION_THRESHOLD) {
+               if (depth-- == 0) {
+                    HEAP.heapSort(arr, lo, hi);
+                    return;
+               }
+               partition(arr, lo, hi, bounds);
+               int leftEnd = bounds[0], midLo = bounds[1], midHi = bounds[2], rightStart = bounds[3];
+               int left = leftEnd - lo + 1, mid = midHi - midLo + 1, right = hi - rightStart + 1;
+               if (left >= mid && left >= right) {
+                    sort(arr, midLo, midHi, depth, bounds);
+                    sort(arr, rightStart, hi, depth, bounds);
+                    hi = leftEnd;
+               } else if (right >= mid) {
+                    sort(arr, lo, leftEnd, depth, bounds);
+                    sort(arr, midLo, midHi, depth, bounds);
+                    lo = rightStart;
+               } else {
+                    sort(arr, lo, leftEnd, depth, bounds);
+                    sort(arr, rightStart, hi, depth, bounds);
+                    lo = midLo;
+                    hi = midHi;
+               }
+          }
+          if (lo < hi)
+               INSERTION.insertionSort(arr, lo, hi);
+     }
+
+     /*
+      * Partitions arr[lo..hi] into three parts that still need sorting:
+      * [lo, bounds[0]], [bounds[1], bounds[2]] and [bounds[3], hi].
+      * Elements between the parts are already in their final position.
+      * An empty part has its end before its start.
+      */
+     static void partition(int arr[], int lo, int hi, int bounds[]) {
+          int len = hi - lo + 1;
+          int seventh = (len >> 3) + (len >> 6) + 1;
+          int e3 = (lo + hi) >>> 1;
+          int e2 = e3 - seventh, e1 = e2 - seventh;
+          int e4 = e3 + seventh, e5 = e4 + seventh;
+          if (len > NINTHER_THRESHOLD) {
+               int d = seventh >> 1;
+               medianToCenter(arr, e1 - d, e1, e1 + d);
+               medianToCenter(arr, e2 - d, e2, e2 + d);
+               medianToCenter(arr, e3 - d, e3, e3 + d);
+               medianToCenter(arr, e4 - d, e4, e4 + d);
+               medianToCenter(arr, e5 - d, e5, e5 + d);
+          }
+          sortFive(arr, e1, e2, e3, e4, e5);
+
+          if (arr[e2] == arr[e4]) {
+               threeWayPartition(arr, lo, hi, arr[e3], bounds);
+          } else {
+               dualPivotPartition(arr, lo, hi, e2, e4, bounds);
+          }
+     }
+
+     static void dualPivotPartition(int arr[], int lo, int hi, int e2, int e4, int bounds[]) {
+          int p1 = arr[e2], p2 = arr[e4];
+          swap(arr, e2, lo);
+          swap(arr, e4, hi);
+          int less = lo + 1, great = hi - 1;
+          for (int k = less; k <= great; k++) {
+               int ak = arr[k];
+               if (ak < p1) {
+                    swap(arr, k, less++);
+               } else if (ak > p2) {
+                    while (arr[great] > p2 && k < great) {
+                         great--;
+                    }
+                    swap(arr, k, great--);
+                    if (arr[k] < p1) {
+                         swap(arr, k, less++);
+                    }
+               }
           }
+          less--;
+          great++;
+          swap(arr, lo, less);
+          swap(arr, hi, great);
+
+          int midLo = less + 1, midHi = great - 1;
+          // a large middle part usually means many copies of the pivots; pull them out
+          if (midHi - midLo > (hi - lo) / 7 * 4) {
+               while (midLo <= midHi && arr[midLo] == p1) {
+                    midLo++;
+               }
+               while (midHi >= midLo && arr[midHi] == p2) {
+                    midHi--;
+               }
+               for (int k = midLo; k <= midHi; k++) {
+                    int ak = arr[k];
+                    if (ak == p1) {
+                         swap(arr, k, midLo++);
+                    } else if (ak == p2) {
+                         while (arr[midHi] == p2 && k < midHi) {
+                              midHi--;
+                         }
+                         swap(arr, k, midHi--);
+                         if (arr[k] == p1) {
+                              swap(arr, k, midLo++);
+                         }
+                    }
+               }
+          }
+          bounds[0] = less - 1;
+          bounds[1] = midLo;
+          bounds[2] = midHi;
+          bounds[3] = great + 1;
      }
 
-     private int partition(int arr[], int begin, int end) {
-          int pivot = arr[end];
-          int i = (begin - 1);
-          for (int j = begin; j < end; j++) {
-               if (arr[j] <= pivot) {
+     // Dijkstra's < p, == p, > p partition
+     static void threeWayPartition(int arr[], int lo, int hi, int pivot, int bounds[]) {
+          int lt = lo, gt = hi, i = lo;
+          while (i <= gt) {
+               int v = arr[i];
+               if (v < pivot) {
+                    swap(arr, lt++, i++);
+               } else if (v > pivot) {
+                    swap(arr, i, gt--);
+               } else {
                     i++;
-                    int swapTemp = arr[i];
-                    arr[i] = arr[j];
-                    arr[j] = swapTemp;
                }
           }
-          int swapTemp = arr[i + 1];
-          arr[i + 1] = arr[end];
-          arr[end] = swapTemp;
-          return i + 1;
+          bounds[0] = lt - 1;
+          bounds[1] = lt;
+          bounds[2] = lt - 1;
+          bounds[3] = gt + 1;
+     }
+
+     static void medianToCenter(int arr[], int a, int b, int c) {
+          compareSwap(arr, a, b);
+          compareSwap(arr, b, c);
+          compareSwap(arr, a, b);
+     }
+
+     // optimal 9-comparator network for five elements
+     static void sortFive(int arr[], int e1, int e2, int e3, int e4, int e5) {
+          compareSwap(arr, e1, e2);
+          compareSwap(arr, e4, e5);
+          compareSwap(arr, e3, e5);
+          compareSwap(arr, e3, e4);
+          compareSwap(arr, e2, e5);
+          compareSwap(arr, e1, e4);
+          compareSwap(arr, e1, e3);
+          compareSwap(arr, e2, e4);
+          compareSwap(arr, e2, e3);
+     }
+
+     static void compareSwap(int arr[], int i, int j) {
+          if (arr[i] > arr[j])
+               swap(arr, i, j);
+     }
+
+     static void swap(int arr[], int i, int j) {
+          int swapTemp = arr[i];
+          arr[i] = arr[j];
+          arr[j] = swapTemp;
+     }
+
+     // sorts the keys between the buffer's position and limit in place
+     public void quickSort(IntBuffer buf) {
+          quickSort(IndexedKeys.of(buf));
+     }
+
+     public void quickSort(LongBuffer buf) {
+          quickSort(IndexedKeys.of(buf));
+     }
+
+     public void quickSort(IndexedKeys keys) {
+          int n = keys.size();
+          if (n > 1) {
+               sort(keys, 0, n - 1, depthLimit(n), new int[4]);
+          }
+     }
+
+     // the int[] algorithm above, on IndexedKeys
+     static void sort(IndexedKeys keys, int lo, int hi, int depth, int bounds[]) {
+          while (hi - lo + 1 > INSERTION_THRESHOLD) {
+               if (depth-- == 0) {
+                    HEAP.heapSort(keys, lo, hi);
+                    return;
+               }
+               partition(keys, lo, hi, bounds);
+               int leftEnd = bounds[0], midLo = bounds[1], midHi = bounds[2], rightStart = bounds[3];
+               int left = leftEnd - lo + 1, mid = midHi - midLo + 1, right = hi - rightStart + 1;
+               if (left >= mid && left >= right) {
+                    sort(keys, midLo, midHi, depth, bounds);
+                    sort(keys, rightStart, hi, depth, bounds);
+                    hi = leftEnd;
+               } else if (right >= mid) {
+                    sort(keys, lo, leftEnd, depth, bounds);
+                    sort(keys, midLo, midHi, depth, bounds);
+                    lo = rightStart;
+               } else {
+                    sort(keys, lo, leftEnd, depth, bounds);
+                    sort(keys, rightStart, hi, depth, bounds);
+                    lo = midLo;
+                    hi = midHi;
+               }
+          }
+          if (lo < hi)
+               INSERTION.insertionSort(keys, lo, hi);
+     }
+
+     static void partition(IndexedKeys keys, int lo, int hi, int bounds[]) {
+          int len = hi - lo + 1;
+          int seventh = (len >> 3) + (len >> 6) + 1;
+          int e3 = (lo + hi) >>> 1;
+          int e2 = e3 - seventh, e1 = e2 - seventh;
+          int e4 = e3 + seventh, e5 = e4 + seventh;
+          if (len > NINTHER_THRESHOLD) {
+               int d = seventh >> 1;
+               medianToCenter(keys, e1 - d, e1, e1 + d);
+               medianToCenter(keys, e2 - d, e2, e2 + d);
+               medianToCenter(keys, e3 - d, e3, e3 + d);
+               medianToCenter(keys, e4 - d, e4, e4 + d);
+               medianToCenter(keys, e5 - d, e5, e5 + d);
+          }
+          sortFive(keys, e1, e2, e3, e4, e5);
+
+          if (keys.get(e2) == keys.get(e4)) {
+               threeWayPartition(keys, lo, hi, keys.get(e3), bounds);
+          } else {
+               dualPivotPartition(keys, lo, hi, e2, e4, bounds);
+          }
+     }
+
+     static void dualPivotPartition(IndexedKeys keys, int lo, int hi, int e2, int e4, int bounds[]) {
+          long p1 = keys.get(e2), p2 = keys.get(e4);
+          keys.swap(e2, lo);
+          keys.swap(e4, hi);
+          int less = lo + 1, great = hi - 1;
+          for (int k = less; k <= great; k++) {
+               long ak = keys.get(k);
+               if (ak < p1) {
+                    keys.swap(k, less++);
+               } else if (ak > p2) {
+                    while (keys.get(great) > p2 && k < great) {
+                         great--;
+                    }
+                    keys.swap(k, great--);
+                    if (keys.get(k) < p1) {
+                         keys.swap(k, less++);
+                    }
+               }
+          }
+          less--;
+          great++;
+          keys.swap(lo, less);
+          keys.swap(hi, great);
+
+          int midLo = less + 1, midHi = great - 1;
+          if (midHi - midLo > (hi - lo) / 7 * 4) {
+               while (midLo <= midHi && keys.get(midLo) == p1) {
+                    midLo++;
+               }
+               while (midHi >= midLo && keys.get(midHi) == p2) {
+                    midHi--;
+               }
+               for (int k = midLo; k <= midHi; k++) {
+                    long ak = keys.get(k);
+                    if (ak == p1) {
+                         keys.swap(k, midLo++);
+                    } else if (ak == p2) {
+                         while (keys.get(midHi) == p2 && k < midHi) {
+                              midHi--;
+                         }
+                         keys.swap(k, midHi--);
+                         if (keys.get(k) == p1) {
+                              keys.swap(k, midLo++);
+                         }
+                    }
+               }
+          }
+          bounds[0] = less - 1;
+          bounds[1] = midLo;
+          bounds[2] = midHi;
+          bounds[3] = great + 1;
+     }
+
+     static void threeWayPartition(IndexedKeys keys, int lo, int hi, long pivot, int bounds[]) {
+          int lt = lo, gt = hi, i = lo;
+          while (i <= gt) {
+               long v = keys.get(i);
+               if (v < pivot) {
+                    keys.swap(lt++, i++);
+               } else if (v > pivot) {
+                    keys.swap(i, gt--);
+               } else {
+                    i++;
+               }
+          }
+          bounds[0] = lt - 1;
+          bounds[1] = lt;
+          bounds[2] = lt - 1;
+          bounds[3] = gt + 1;
+     }
+
+     static void medianToCenter(IndexedKeys keys, int a, int b, int c) {
+          compareSwap(keys, a, b);
+          compareSwap(keys, b, c);
+          compareSwap(keys, a, b);
+     }
+
+     static void sortFive(IndexedKeys keys, int e1, int e2, int e3, int e4, int e5) {
+          compareSwap(keys, e1, e2);
+          compareSwap(keys, e4, e5);
+          compareSwap(keys, e3, e5);
+          compareSwap(keys, e3, e4);
+          compareSwap(keys, e2, e5);
+          compareSwap(keys, e1, e4);
+          compareSwap(keys, e1, e3);
+          compareSwap(keys, e2, e4);
+          compareSwap(keys, e2, e3);
+     }
+
+     static void compareSwap(IndexedKeys keys, int i, int j) {
+          long a = keys.get(i), b = keys.get(j);
+          if (a > b) {
+               keys.set(i, b);
+               keys.set(j, a);
+          }
+     }
+
+     static final class SortTask extends RecursiveAction {
+          private static final long serialVersionUID = 1L;
+
+          final int arr[];
+          final int lo, hi, depth, parallelThreshold;
+
+          SortTask(int arr[], int lo, int hi, int depth, int parallelThreshold) {
+               this.arr = arr;
+               this.lo = lo;
+               this.hi = hi;
+               this.depth = depth;
+               this.parallelThreshold = parallelThreshold;
+          }
+
+          @Override
+          protected void compute() {
+               int bounds[] = new int[4];
+               if (hi - lo + 1 <= Math.max(parallelThreshold, INSERTION_THRESHOLD) || depth == 0) {
+                    sort(arr, lo, hi, depth, bounds);
+                    return;
+               }
+               partition(arr, lo, hi, bounds);
+               invokeAll(new SortTask(arr, lo, bounds[0], depth - 1, parallelThreshold),
+                         new SortTask(arr, bounds[1], bounds[2], depth - 1, parallelThreshold),
+                         new SortTask(arr, bounds[3], hi, depth - 1, parallelThreshold));
+          }
      }
 }
@@ -1,39 +1,441 @@
 package Sorting;
 
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/*
+ * LSD radix sort on 8-bit digits.
+ *
+ * Signed keys are sorted as unsigned after flipping the sign bit, and
+ * float/double keys are first mapped to integers with the same order, so
+ * negative values need no special case. A pass whose digit is the same for
+ * every element is skipped. Every pass scatters between the input and one
+ * buffer allocated per sort.
+ *
+ * The parallel variants split the input into one chunk per worker; each
+ * chunk builds its own histogram, the histograms are merged into per-chunk
+ * write offsets, and every chunk scatters into its own slots.
+ *
+ * Keys kept off the heap (IntBuffer, LongBuffer or any IndexedKeys) are
+ * sorted in place with an MSD variant instead, so no scratch column of the
+ * same size has to be allocated next to them.
+ */
 public class RadixSort {
-     static int getMax(int arr[], int n) {
-          int mx = arr[0];
-          for (int i = 1; i < n; i++) {
-               if (arr[i] > mx) {
-                    mx = arr[i];
+     static final int BITS = 8;
+     static final int BUCKETS = 1 << BITS;
+     static final int MASK = BUCKETS - 1;
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+     // MSD buckets this small are finished with quicksort
+     static final int MSD_CUTOFF = 64;
+
+     public void radixSort(int arr[], int n) {
+          sortInts(arr, n, Integer.MIN_VALUE, null);
+     }
+
+     public void radixSort(int arr[]) {
+          sortInts(arr, arr.length, Integer.MIN_VALUE, null);
+     }
+
+     public void radixSort(long arr[]) {
+          sortLongs(arr, arr.length, Long.MIN_VALUE, 0, null);
+     }
+
+     public void radixSort(float arr[]) {
+          sortFloats(arr, null);
+     }
+
+     public void radixSort(double arr[]) {
+          sortDoubles(arr, null);
+     }
+
+     public void parallelRadixSort(int arr[]) {
+          sortInts(arr, arr.length, Integer.MIN_VALUE, parallelPool(arr.length));
+     }
+
+     public void parallelRadixSort(long arr[]) {
+          sortLongs(arr, arr.length, Long.MIN_VALUE, 0, parallelPool(arr.length));
+     }
+
+     public void parallelRadixSort(float arr[]) {
+          sortFloats(arr, parallelPool(arr.length));
+     }
+
+     public void parallelRadixSort(double arr[]) {
+          sortDoubles(arr, parallelPool(arr.length));
+     }
+
+     // sorts the keys between the buffer's position and limit in place
+     public void radixSort(IntBuffer buf) {
+          radixSort(IndexedKeys.of(buf));
+     }
+
+     public void radixSort(LongBuffer buf) {
+          radixSort(IndexedKeys.of(buf));
+     }
+
+     public void radixSort(IndexedKeys keys) {
+          int n = keys.size();
+          if (n < 2)
+               return;
+          int digits = keys.bytes();
+          // flipping the sign bit of the stored width makes signed keys sort as unsigned
+          long flip = 1L << (digits * BITS - 1);
+          msdSort(keys, 0, n, (digits - 1) * BITS, flip, new int[digits][BUCKETS + 1], new int[digits][BUCKETS], new int[4]);
+     }
+
+     /*
+      * American flag sort of keys[lo, hi) on the digit at shift: count the
+      * digits, then move every key straight into its bucket by following
+      * cycles of swaps, and recurse into each bucket on the next digit.
+      * Every digit level has its own count and next arrays; bounds is the
+      * quicksort scratch space.
+      */
+     static void msdSort(IndexedKeys keys, int lo, int hi, int shift, long flip, int starts[][], int nexts[][], int bounds[]) {
+          if (hi - lo <= MSD_CUTOFF) {
+               QuickSort.sort(keys, lo, hi - 1, QuickSort.depthLimit(hi - lo), bounds);
+               return;
+          }
+          int level = shift / BITS;
+          int start[] = starts[level];
+          Arrays.fill(start, 0);
+          for (int i = lo; i < hi; i++) {
+               start[(int) ((keys.get(i) ^ flip) >>> shift & MASK) + 1]++;
+          }
+          if (start[(int) ((keys.get(lo) ^ flip) >>> shift & MASK) + 1] == hi - lo) {
+               if (shift > 0)
+                    msdSort(keys, lo, hi, shift - BITS, flip, starts, nexts, bounds);
+               return;
+          }
+          start[0] = lo;
+          for (int d = 1; d <= BUCKETS; d++) {
+               start[d] += start[d - 1];
+          }
+          int next[] = nexts[level];
+          System.arraycopy(start, 0, next, 0, BUCKETS);
+          for (int d = 0; d < BUCKETS; d++) {
+               int end = start[d + 1];
+               while (next[d] < end) {
+                    long v = keys.get(next[d]);
+                    int digit = (int) ((v ^ flip) >>> shift & MASK);
+                    while (digit != d) {
+                         int pos = next[digit]++;
+                         long displaced = keys.get(pos);
+                         keys.set(pos, v);
+                         v = displaced;
+                         digit = (int) ((v ^ flip) >>> shift & MASK);
+                    }
+                    keys.set(next[d]++, v);
                }
           }
-          return mx;
+          if (shift == 0)
+               return;
+          for (int d = 0; d < BUCKETS; d++) {
+               if (start[d + 1] - start[d] > 1)
+                    msdSort(keys, start[d], start[d + 1], shift - BITS, flip, starts, nexts, bounds);
+          }
      }
 
-     static void countSort(int arr[], int n, int exp) {
-          int output[] = new int[n];
-          int i;
-          int count[] = new int[10];
-          for (i = 0; i < n; i++) {
-               count[(arr[i] / exp) % 10]++;
+     /*
+      * Returns the permutation that sorts keys: keys[order[0]] <= keys[order[1]] <= ...
+      * Equal keys keep their original relative order, so records can be sorted
+      * by key (or by several keys, least significant first) without moving them.
+      */
+     public int[] sortedOrder(int keys[]) {
+          return sortedOrder(keys, null);
+     }
+
+     public int[] parallelSortedOrder(int keys[]) {
+          return sortedOrder(keys, parallelPool(keys.length));
+     }
+
+     public int[] sortedOrder(long keys[]) {
+          int n = keys.length;
+          int order[] = new int[n];
+          for (int i = 0; i < n; i++) {
+               order[i] = i;
+          }
+          if (n < 2)
+               return order;
+          long src[] = new long[n];
+          for (int i = 0; i < n; i++) {
+               src[i] = keys[i] ^ Long.MIN_VALUE;
+          }
+          long dst[] = new long[n];
+          int idxDst[] = new int[n];
+          int idxSrc[] = order;
+          int counts[][] = new int[8][BUCKETS];
+          for (int i = 0; i < n; i++) {
+               long v = src[i];
+               for (int pass = 0; pass < 8; pass++) {
+                    counts[pass][(int) (v >>> (pass * BITS)) & MASK]++;
+               }
           }
-          for (i = 1; i < 10; i++) {
-               count[i] += count[i - 1];
+          for (int pass = 0; pass < 8; pass++) {
+               int shift = pass * BITS;
+               int count[] = counts[pass];
+               if (count[(int) (src[0] >>> shift) & MASK] == n)
+                    continue;
+               toOffsets(count);
+               for (int i = 0; i < n; i++) {
+                    int pos = count[(int) (src[i] >>> shift) & MASK]++;
+                    dst[pos] = src[i];
+                    idxDst[pos] = idxSrc[i];
+               }
+               long t[] = src;
+               src = dst;
+               dst = t;
+               int ti[] = idxSrc;
+               idxSrc = idxDst;
+               idxDst = ti;
           }
-          for (i = n - 1; i >= 0; i--) {
-               output[count[(arr[i] / exp) % 10] - 1] = arr[i];
-               count[(arr[i] / exp) % 10]--;
+          return idxSrc;
+     }
+
+     // pool == null orders on the caller
+     static int[] sortedOrder(int keys[], ForkJoinPool pool) {
+          int n = keys.length;
+          // sortable key in the high half, index in the low half; only the high half is sorted
+          long packed[] = new long[n];
+          for (int i = 0; i < n; i++) {
+               packed[i] = ((long) (keys[i] ^ Integer.MIN_VALUE) << 32) | i;
           }
-          for (i = 0; i < n; i++) {
-               arr[i] = output[i];
+          sortLongs(packed, n, 0, 4, pool);
+          int order[] = new int[n];
+          for (int i = 0; i < n; i++) {
+               order[i] = (int) packed[i];
           }
+          return order;
      }
 
-     public void radixSort(int arr[], int n) {
-          int m = getMax(arr, n);
-          for (int exp = 1; m / exp > 0; exp *= 10) {
-               countSort(arr, n, exp);
+     static ForkJoinPool parallelPool(int n) {
+          return n >= DEFAULT_PARALLEL_THRESHOLD ? ForkJoinPool.commonPool() : null;
+     }
+
+     // sorts a[0, n) as unsigned keys after xor with flip; pool == null sorts on the caller
+     static void sortInts(int a[], int n, int flip, ForkJoinPool pool) {
+          if (n < 2)
+               return;
+          int buf[] = new int[n];
+          int src[] = a, dst[] = buf;
+          if (pool == null) {
+               int counts[][] = new int[4][BUCKETS];
+               for (int i = 0; i < n; i++) {
+                    int v = a[i] ^ flip;
+                    counts[0][v & MASK]++;
+                    counts[1][(v >>> 8) & MASK]++;
+                    counts[2][(v >>> 16) & MASK]++;
+                    counts[3][v >>> 24]++;
+               }
+               for (int pass = 0; pass < 4; pass++) {
+                    int shift = pass * BITS;
+                    int count[] = counts[pass];
+                    if (count[((src[0] ^ flip) >>> shift) & MASK] == n)
+                         continue;
+                    toOffsets(count);
+                    for (int i = 0; i < n; i++) {
+                         int v = src[i];
+                         dst[count[((v ^ flip) >>> shift) & MASK]++] = v;
+                    }
+                    int t[] = src;
+                    src = dst;
+                    dst = t;
+               }
+          } else {
+               int chunks = chunkCount(n, pool);
+               int hist[][] = new int[chunks][BUCKETS];
+               for (int pass = 0; pass < 4; pass++) {
+                    int shift = pass * BITS;
+                    int from[] = src, to[] = dst;
+                    forEachChunk(pool, chunks, c -> {
+                         int h[] = hist[c];
+                         Arrays.fill(h, 0);
+                         for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                              h[((from[i] ^ flip) >>> shift) & MASK]++;
+                         }
+                    });
+                    if (mergeHistograms(hist, ((src[0] ^ flip) >>> shift) & MASK, n))
+                         continue;
+                    forEachChunk(pool, chunks, c -> {
+                         int offset[] = hist[c];
+                         for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                              int v = from[i];
+                              to[offset[((v ^ flip) >>> shift) & MASK]++] = v;
+                         }
+                    });
+                    src = to;
+                    dst = from;
+               }
+          }
+          if (src != a)
+               System.arraycopy(src, 0, a, 0, n);
+     }
+
+     // sorts a[0, n) as unsigned keys after xor with flip, skipping the digits below firstPass
+     static void sortLongs(long a[], int n, long flip, int firstPass, ForkJoinPool pool) {
+          if (n < 2)
+               return;
+          long buf[] = new long[n];
+          long src[] = a, dst[] = buf;
+          if (pool == null) {
+               int counts[][] = new int[8][BUCKETS];
+               for (int i = 0; i < n; i++) {
+                    long v = a[i] ^ flip;
+                    for (int pass = firstPass; pass < 8; pass++) {
+                         counts[pass][(int) (v >>> (pass * BITS)) & MASK]++;
+                    }
+               }
+               for (int pass = firstPass; pass < 8; pass++) {
+                    int shift = pass * BITS;
+                    int count[] = counts[pass];
+                    if (count[(int) ((src[0] ^ flip) >>> shift) & MASK] == n)
+                         continue;
+                    toOffsets(count);
+                    for (int i = 0; i < n; i++) {
+                         long v = src[i];
+                         dst[count[(int) ((v ^ flip) >>> shift) & MASK]++] = v;
+                    }
+                    long t[] = src;
+                    src = dst;
+                    dst = t;
+               }
+          } else {
+               int chunks = chunkCount(n, pool);
+               int hist[][] = new int[chunks][BUCKETS];
+               for (int pass = firstPass; pass < 8; pass++) {
+                    int shift = pass * BITS;
+                    long from[] = src, to[] = dst;
+                    forEachChunk(pool, chunks, c -> {
+                         int h[] = hist[c];
+                         Arrays.fill(h, 0);
+                         for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                              h[(int) ((from[i] ^ flip) >>> shift) & MASK]++;
+                         }
+                    });
+                    if (mergeHistograms(hist, (int) ((src[0] ^ flip) >>> shift) & MASK, n))
+                         continue;
+                    forEachChunk(pool, chunks, c -> {
+                         int offset[] = hist[c];
+                         for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+                              long v = from[i];
+                              to[offset[(int) ((v ^ flip) >>> shift) & MASK]++] = v;
+                         }
+                    });
+                    src = to;
+                    dst = from;
+               }
           }
+          if (src != a)
+               System.arraycopy(src, 0, a, 0, n);
+     }
+
+     static void sortFloats(float arr[], ForkJoinPool pool) {
+          int n = arr.length;
+          int keys[] = new int[n];
+          for (int i = 0; i < n; i++) {
+               keys[i] = floatToSortable(arr[i]);
+          }
+          sortInts(keys, n, 0, pool);
+          for (int i = 0; i < n; i++) {
+               arr[i] = sortableToFloat(keys[i]);
+          }
+     }
+
+     static void sortDoubles(double arr[], ForkJoinPool pool) {
+          int n = arr.length;
+          long keys[] = new long[n];
+          for (int i = 0; i < n; i++) {
+               keys[i] = doubleToSortable(arr[i]);
+          }
+          sortLongs(keys, n, 0, 0, pool);
+          for (int i = 0; i < n; i++) {
+               arr[i] = sortableToDouble(keys[i]);
+          }
+     }
+
+     /*
+      * IEEE-754 bits compared as unsigned integers: negative values have all
+      * bits flipped, non-negative values only the sign bit. The order matches
+      * Arrays.sort: -0.0 before 0.0 and NaN last.
+      */
+     static int floatToSortable(float f) {
+          int bits = Float.floatToIntBits(f);
+          return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+     }
+
+     static float sortableToFloat(int key) {
+          return Float.intBitsToFloat(key ^ (~(key >> 31) | Integer.MIN_VALUE));
+     }
+
+     static long doubleToSortable(double d) {
+          long bits = Double.doubleToLongBits(d);
+          return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+     }
+
+     static double sortableToDouble(long key) {
+          return Double.longBitsToDouble(key ^ (~(key >> 63) | Long.MIN_VALUE));
+     }
+
+     // exclusive prefix sum in place: count[d] becomes the first slot for digit d
+     static void toOffsets(int count[]) {
+          int sum = 0;
+          for (int d = 0; d < BUCKETS; d++) {
+               int c = count[d];
+               count[d] = sum;
+               sum += c;
+          }
+     }
+
+     /*
+      * Turns per-chunk counts into per-chunk write offsets (digit-major,
+      * chunk-minor, which keeps the scatter stable). Returns true without
+      * touching the counts when every element falls into sampleDigit.
+      */
+     static boolean mergeHistograms(int hist[][], int sampleDigit, int n) {
+          int total = 0;
+          for (int h[] : hist) {
+               total += h[sampleDigit];
+          }
+          if (total == n)
+               return true;
+          int sum = 0;
+          for (int d = 0; d < BUCKETS; d++) {
+               for (int h[] : hist) {
+                    int c = h[d];
+                    h[d] = sum;
+                    sum += c;
+               }
+          }
+          return false;
+     }
+
+     static int chunkCount(int n, ForkJoinPool pool) {
+          return Math.max(1, Math.min(pool.getParallelism(), n / (DEFAULT_PARALLEL_THRESHOLD / 4)));
+     }
+
+     static int chunkStart(int n, int chunks, int c) {
+          return (int) ((long) n * c / chunks);
+     }
+
+     static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+          if (chunks == 1) {
+               body.accept(0);
+               return;
+          }
+          pool.invoke(new RecursiveAction() {
+               @Override
+               protected void compute() {
+                    ForkJoinTask<?> tasks[] = new ForkJoinTask<?>[chunks];
+                    for (int c = 0; c < chunks; c++) {
+                         int chunk = c;
+                         tasks[c] = ForkJoinTask.adapt(() -> body.accept(chunk));
+                    }
+                    invokeAll(tasks);
+               }
+          });
      }
 }
@@ -0,0 +1,184 @@
+package Sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/*
+ * One entry point over the engines in this package.
+ *
+ * Primitive arrays are routed by size and by a quick presortedness sample:
+ * tiny arrays are insertion sorted, mostly ascending or descending input
+ * goes to the run-detecting NaturalMergeSort (O(n) when already sorted or
+ * reversed), and everything else goes to the counting/radix engines
+ * (int keys fall back from counting to radix when the range is wide). Large
+ * arrays use the parallel variants when more than one worker is available.
+ *
+ * Records are sorted by an int or long key through RadixSort.sortedOrder,
+ * so the keys are never boxed and equal keys keep their order.
+ */
+public class Sorter {
+     static final int INSERTION_THRESHOLD = 32;
+     // below this, the fixed passes of the linear-time engines do not pay off
+     static final int LINEAR_SORT_THRESHOLD = 1 << 10;
+     static final int PARALLEL_THRESHOLD = 1 << 18;
+     static final int SAMPLE_PAIRS = 64;
+     // share of sampled adjacent pairs that must be in order to count as presorted
+     static final double PRESORTED_RATIO = 0.9;
+
+     private static final InsertionSort INSERTION = new InsertionSort();
+     private static final NaturalMergeSort NATURAL = new NaturalMergeSort();
+     private static final QuickSort QUICK = new QuickSort();
+     private static final CountingSort COUNTING = new CountingSort();
+     private static final RadixSort RADIX = new RadixSort();
+
+     public void sort(int[] arr) {
+          int n = arr.length;
+          if (n <= INSERTION_THRESHOLD) {
+               INSERTION.insertionSort(arr);
+               return;
+          }
+          int ascending = ascendingPairs(arr);
+          if (ascending >= SAMPLE_PAIRS * PRESORTED_RATIO || ascending <= SAMPLE_PAIRS * (1 - PRESORTED_RATIO)) {
+               NATURAL.naturalMergeSort(arr);
+          } else if (n < LINEAR_SORT_THRESHOLD) {
+               QUICK.quickSort(arr, 0, n - 1);
+          } else if (useParallel(n)) {
+               COUNTING.parallelCountingSort(arr);
+          } else {
+               COUNTING.countingSort(arr);
+          }
+     }
+
+     public void sort(long[] arr) {
+          int n = arr.length;
+          if (n <= INSERTION_THRESHOLD) {
+               insertionSort(arr);
+               return;
+          }
+          if (isSorted(arr))
+               return;
+          if (useParallel(n))
+               RADIX.parallelRadixSort(arr);
+          else
+               RADIX.radixSort(arr);
+     }
+
+     public void sort(double[] arr) {
+          int n = arr.length;
+          if (n <= INSERTION_THRESHOLD) {
+               insertionSort(arr);
+               return;
+          }
+          if (isSorted(arr))
+               return;
+          if (useParallel(n))
+               RADIX.parallelRadixSort(arr);
+          else
+               RADIX.radixSort(arr);
+     }
+
+     /*
+      * Stable comparison sort. The JDK's TimSort is already adaptive and
+      * allocation-light for object arrays, so it is used as is.
+      */
+     public <T> void sort(T[] arr, Comparator<? super T> comparator) {
+          Arrays.sort(arr, comparator);
+     }
+
+     // stable sort of records by an int key; the keys are extracted once and never boxed
+     public <T> void sortByIntKey(T[] arr, ToIntFunction<? super T> key) {
+          int n = arr.length;
+          int keys[] = new int[n];
+          for (int i = 0; i < n; i++) {
+               keys[i] = key.applyAsInt(arr[i]);
+          }
+          if (isSorted(keys))
+               return;
+          permute(arr, useParallel(n) ? RADIX.parallelSortedOrder(keys) : RADIX.sortedOrder(keys));
+     }
+
+     public <T> void sortByLongKey(T[] arr, ToLongFunction<? super T> key) {
+          int n = arr.length;
+          long keys[] = new long[n];
+          for (int i = 0; i < n; i++) {
+               keys[i] = key.applyAsLong(arr[i]);
+          }
+          if (isSorted(keys))
+               return;
+          permute(arr, RADIX.sortedOrder(keys));
+     }
+
+     static boolean useParallel(int n) {
+          return n >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+     }
+
+     // number of in-order pairs among SAMPLE_PAIRS evenly spaced adjacent pairs
+     static int ascendingPairs(int[] arr) {
+          int n = arr.length;
+          int ascending = 0;
+          for (int s = 0; s < SAMPLE_PAIRS; s++) {
+               int i = (int) ((long) s * (n - 1) / SAMPLE_PAIRS);
+               if (arr[i] <= arr[i + 1])
+                    ascending++;
+          }
+          return ascending;
+     }
+
+     static boolean isSorted(int[] arr) {
+          for (int i = 1; i < arr.length; i++) {
+               if (arr[i - 1] > arr[i])
+                    return false;
+          }
+          return true;
+     }
+
+     static boolean isSorted(long[] arr) {
+          for (int i = 1; i < arr.length; i++) {
+               if (arr[i - 1] > arr[i])
+                    return false;
+          }
+          return true;
+     }
+
+     static boolean isSorted(double[] arr) {
+          for (int i = 1; i < arr.length; i++) {
+               if (Double.compare(arr[i - 1], arr[i]) > 0)
+                    return false;
+          }
+          return true;
+     }
+
+     static void insertionSort(long[] arr) {
+          for (int i = 1; i < arr.length; i++) {
+               long key = arr[i];
+               int j = i - 1;
+               while (j >= 0 && arr[j] > key) {
+                    arr[j + 1] = arr[j];
+                    j--;
+               }
+               arr[j + 1] = key;
+          }
+     }
+
+     static void insertionSort(double[] arr) {
+          for (int i = 1; i < arr.length; i++) {
+               double key = arr[i];
+               int j = i - 1;
+               while (j >= 0 && Double.compare(arr[j], key) > 0) {
+                    arr[j + 1] = arr[j];
+                    j--;
+               }
+               arr[j + 1] = key;
+          }
+     }
+
+     static <T> void permute(T[] arr, int order[]) {
+          T copy[] = arr.clone();
+          for (int i = 0; i < order.length; i++) {
+               arr[i] = copy[order[i]];
+          }
+     }
+}
@@ -1,71 +1,53 @@
 import java.util.*;
+import Graphs.CsrGraph;
+import Graphs.DepthFirstSearch;
+import Graphs.ParallelBfs;
 
 class Graph{
  private int V;//no.of vertices
-  private List<List<integer>>adj;
+  private CsrGraph.Builder edges;
+  private CsrGraph adj;//built from edges on first traversal
 public Graph(int V){
   this.V=V;
-  adj=new ArrayList<>();
-  for(int i=0;i<V;i++){
-    adj.add(
-      new ArrayList<>()
-    );
-  }
+  edges=new CsrGraph.Builder(V, true);
 }
   public void addEdge(int u, int v){
-    adj.get(u).add(v);
-    adj.get(v).add(u);
+    edges.addEdge(u, v);
+    adj=null;
+  }
+  public CsrGraph csr(){
+    if(adj==null)adj=edges.build();
+    return adj;
+  }
+  //level-synchronous parallel BFS; visitor (may be null) sees every reached node once
+  public ParallelBfs.Result BFS(int start, ParallelBfs.Visitor visitor){
+    return new ParallelBfs(csr()).search(start, visitor);
   }
   public void BFS(int start){
-    boolean[] visited=new boolean[V];
-    Queue<Integer>queue=new LinkedList<>();
-    visited[start]=true;
-    queue.offer(start);
+    ParallelBfs.Result r=BFS(start, null);
+    //bucket the reached nodes by distance so they print level by level
+    int[] first=new int[r.depth+2];
+    for(int v=0;v<V;v++)if(r.dist[v]>=0)first[r.dist[v]+1]++;
+    for(int d=0;d<=r.depth;d++)first[d+1]+=first[d];
+    int[] order=new int[r.reached];
+    for(int v=0;v<V;v++)if(r.dist[v]>=0)order[first[r.dist[v]]++]=v;
     System.out.print("BFS starting from " + start + ": ");
-    while(!queue.isEmpty()){
-      int node=queue.poll();
-      System.out.println(node+" ");
-      for(int neighbor:adj.get(node)){
-        if(!visited[neighbor]){
-          visited[neighbor]=true;
-          queue.offer(neighbor);
-        }
-      }
-    }System.out.println();
+    for(int node: order)System.out.print(node+" ");
+    System.out.println();
   }
-  public void DFSUtil(int node, boolean[] visited){
-    visited[node]=true;
-    System.out.print(node + " ");
-    for(int neighbor: adj.get(node)){
-      if(!visited[neighbor])DFSUtil(neighbor, visited);
-    }
-
+  //explicit-stack DFS: the same order as recursion, without its depth limit
+  public void DFS(int start, DepthFirstSearch.Visitor visitor){
+    new DepthFirstSearch(csr()).search(start, visitor);
   }
+  //prints the nodes in the order recursion would visit them
   public void DFSIterative(int start){
-    boolean[] visited=new boolean[V];
-    Stack<Integer>stack=new Stack<>();
-    stack.push(start);
     System.out.print("DFS (iterative) starting from " + start + ": ");
-    while(stack.isEmpty()){
-      int node=stack.pop();
-      if(!visited[node]){visited[node]=true;System.out.print(node + " ");}
-      //push neighbors
-      for(int neighbor: adj.get(node)){
-        if(!visited[neighbor]){stack.push(neighbor);}
-      }
-
-    }System.out.println();
-  }
-  
-  //------------------------RECCURSSIVE DFS------------------------------------
-  public void DFS(int start){
-    boolean[]visited=new boolean[V];
-    System.out.print("DFS (recursive) starting from " + start + ": ");
-    DFSUtil(start, visited);
+    DFS(start, new DepthFirstSearch.Visitor(){
+      public void preVisit(int node, int parent){System.out.print(node + " ");}
+    });
     System.out.println();
   }
 };
-public DFSItera
 public class Impl_DFS_BFS_iterativeDFS{
   public static void main(String[] args){
     Graph g=new Graph(6);
@@ -75,8 +57,8 @@ public class Impl_DFS_BFS_iterativeDFS{
         g.addEdge(2, 4);
         g.addEdge(3, 5);
         g.BFS(0);
-        g.DFS(0);
         g.DFSIterative(0);
 
 
   }
+}
@@ -0,0 +1,236 @@
+package Graphs;
+
+import java.util.Arrays;
+
+/*
+ * Immutable graph in compressed sparse row form.
+ *
+ * The edges leaving u are e = offsets[u] .. offsets[u + 1] - 1, and edge e
+ * goes to targets[e] with weight weight(e). Three flat arrays replace a
+ * List<List<...>> of boxed neighbours: 4 bytes per edge for the target,
+ * plus 4 or 8 for the weight when there is one (an int[] unless some
+ * weight needs a long), and 4 per vertex. A scan of u's neighbours reads
+ * one contiguous slice.
+ *
+ * An undirected edge is stored as two arcs, u -> v and v -> u; edgeCount()
+ * counts arcs. Build with fromEdges() when the edge arrays already exist,
+ * or with a Builder from a stream of edges.
+ */
+public final class CsrGraph {
+     private final int offsets[];
+     private final int targets[];
+     // at most one of these is set
+     private final int intWeights[];
+     private final long longWeights[];
+     // every edge was stored as both of its arcs
+     private final boolean undirected;
+
+     CsrGraph(int[] offsets, int[] targets, int[] intWeights, long[] longWeights, boolean undirected) {
+          this.offsets = offsets;
+          this.targets = targets;
+          this.intWeights = intWeights;
+          this.longWeights = longWeights;
+          this.undirected = undirected;
+     }
+
+     /*
+      * Two counting passes over the edge arrays: the first counts the
+      * out-degree of every vertex and turns the counts into offsets, the
+      * second drops every edge into its slot. Edges keep their input order
+      * within a vertex. weights may be null; an undirected graph gets both
+      * arcs of every edge.
+      */
+     public static CsrGraph fromEdges(int vertices, int[] from, int[] to, long[] weights, boolean undirected) {
+          return build(vertices, from, to, null, weights, from.length, undirected);
+     }
+
+     public static CsrGraph fromEdges(int vertices, int[] from, int[] to, int[] weights, boolean undirected) {
+          return build(vertices, from, to, weights, null, from.length, undirected);
+     }
+
+     public static CsrGraph fromEdges(int vertices, int[] from, int[] to, boolean undirected) {
+          return build(vertices, from, to, null, null, from.length, undirected);
+     }
+
+     static CsrGraph build(int vertices, int[] from, int[] to, int[] intW, long[] longW, int m, boolean undirected) {
+          if (vertices < 0 || to.length < m || (intW != null && intW.length < m) || (longW != null && longW.length < m)) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          long arcs = undirected ? 2L * m : m;
+          if (arcs > Integer.MAX_VALUE - 8) {
+               throw new IllegalArgumentException(arcs + " arcs do not fit in one array");
+          }
+          int offsets[] = new int[vertices + 1];
+          for (int e = 0; e < m; e++) {
+               int u = from[e], v = to[e];
+               if (u < 0 || u >= vertices || v < 0 || v >= vertices) {
+                    throw new IllegalArgumentException("edge " + u + " -> " + v + " outside " + vertices + " vertices");
+               }
+               offsets[u + 1]++;
+               if (undirected)
+                    offsets[v + 1]++;
+          }
+          for (int u = 0; u < vertices; u++)
+               offsets[u + 1] += offsets[u];
+          int targets[] = new int[(int) arcs];
+          int iw[] = intW != null ? new int[(int) arcs] : null;
+          long lw[] = longW != null ? new long[(int) arcs] : null;
+          // next free slot of every vertex
+          int next[] = Arrays.copyOf(offsets, vertices);
+          for (int e = 0; e < m; e++) {
+               int u = from[e], v = to[e];
+               int slot = next[u]++;
+               targets[slot] = v;
+               if (iw != null)
+                    iw[slot] = intW[e];
+               else if (lw != null)
+                    lw[slot] = longW[e];
+               if (undirected) {
+                    slot = next[v]++;
+                    targets[slot] = u;
+                    if (iw != null)
+                         iw[slot] = intW[e];
+                    else if (lw != null)
+                         lw[slot] = longW[e];
+               }
+          }
+          return new CsrGraph(offsets, targets, iw, lw, undirected);
+     }
+
+     public int vertexCount() {
+          return offsets.length - 1;
+     }
+
+     public int edgeCount() {
+          return targets.length;
+     }
+
+     public boolean isUndirected() {
+          return undirected;
+     }
+
+     public boolean isWeighted() {
+          return intWeights != null || longWeights != null;
+     }
+
+     // the edges leaving u are firstEdge(u) .. endEdge(u) - 1
+     public int firstEdge(int u) {
+          return offsets[u];
+     }
+
+     public int endEdge(int u) {
+          return offsets[u + 1];
+     }
+
+     public int degree(int u) {
+          return offsets[u + 1] - offsets[u];
+     }
+
+     public int target(int e) {
+          return targets[e];
+     }
+
+     // 1 for every edge of an unweighted graph
+     public long weight(int e) {
+          if (intWeights != null)
+               return intWeights[e];
+          return longWeights != null ? longWeights[e] : 1;
+     }
+
+     // the same graph with every arc reversed; an undirected graph is its own transpose
+     public CsrGraph transpose() {
+          if (undirected)
+               return this;
+          int n = vertexCount();
+          int from[] = new int[targets.length];
+          for (int u = 0; u < n; u++)
+               Arrays.fill(from, offsets[u], offsets[u + 1], u);
+          return build(n, targets, from, intWeights, longWeights, targets.length, false);
+     }
+
+     // heap bytes held by the arrays
+     public long memoryBytes() {
+          long bytes = 4L * offsets.length + 4L * targets.length;
+          if (intWeights != null)
+               bytes += 4L * intWeights.length;
+          if (longWeights != null)
+               bytes += 8L * longWeights.length;
+          return bytes;
+     }
+
+     /*
+      * Collects edges one at a time into primitive arrays that grow by half,
+      * then builds the graph with the same two counting passes. Weights stay
+      * in an int[] until one needs a long. The builder can be discarded
+      * after build(); its arrays are not shared with the graph.
+      */
+     public static final class Builder {
+          private final int vertices;
+          private final boolean undirected;
+          private int from[] = new int[16];
+          private int to[] = new int[16];
+          private int intWeights[];
+          private long longWeights[];
+          private int size;
+
+          public Builder(int vertices, boolean undirected) {
+               if (vertices < 0) {
+                    throw new IllegalArgumentException("Invalid input");
+               }
+               this.vertices = vertices;
+               this.undirected = undirected;
+          }
+
+          public Builder addEdge(int u, int v) {
+               if (intWeights != null || longWeights != null) {
+                    throw new IllegalStateException("weighted edges need a weight");
+               }
+               ensureCapacity();
+               from[size] = u;
+               to[size++] = v;
+               return this;
+          }
+
+          public Builder addEdge(int u, int v, long weight) {
+               if (size > 0 && intWeights == null && longWeights == null) {
+                    throw new IllegalStateException("unweighted edges cannot take a weight");
+               }
+               if (intWeights == null && longWeights == null)
+                    intWeights = new int[from.length];
+               if (longWeights == null && weight != (int) weight) {
+                    longWeights = new long[from.length];
+                    for (int e = 0; e < size; e++)
+                         longWeights[e] = intWeights[e];
+                    intWeights = null;
+               }
+               ensureCapacity();
+               if (longWeights != null)
+                    longWeights[size] = weight;
+               else
+                    intWeights[size] = (int) weight;
+               from[size] = u;
+               to[size++] = v;
+               return this;
+          }
+
+          public int edgeCount() {
+               return size;
+          }
+
+          public CsrGraph build() {
+               return CsrGraph.build(vertices, from, to, intWeights, longWeights, size, undirected);
+          }
+
+          void ensureCapacity() {
+               if (size < from.length)
+                    return;
+               int capacity = size + (size >> 1) + 1;
+               from = Arrays.copyOf(from, capacity);
+               to = Arrays.copyOf(to, capacity);
+               if (intWeights != null)
+                    intWeights = Arrays.copyOf(intWeights, capacity);
+               if (longWeights != null)
+                    longWeights = Arrays.copyOf(longWeights, capacity);
+          }
+     }
+}
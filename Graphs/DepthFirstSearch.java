@@ -0,0 +1,134 @@
+package Graphs;
+
+import java.util.Arrays;
+
+/*
+ * Depth-first search over a CsrGraph without recursion.
+ *
+ * The call stack of the recursive version becomes an int[] of frames, each
+ * holding a vertex, the next of its edges to look at, and (for undirected
+ * graphs) the parent whose arc back has not been skipped yet. A step
+ * either advances the top frame by one edge or pops it, so vertices are
+ * discovered, edges classified and vertices finished in exactly the order
+ * recursion would use, however deep the graph. Every array is allocated
+ * once in the constructor and reused by later searches.
+ *
+ * Edges are classified the usual way:
+ * - TREE: to an undiscovered vertex, which is explored next.
+ * - BACK: to a vertex still on the stack (a cycle).
+ * - FORWARD: to a finished descendant.
+ * - CROSS: to a finished vertex that is not a descendant.
+ * In an undirected graph the arc that leads back to the parent is skipped
+ * once, and an edge is reported only from the side that sees it first, so
+ * there are only TREE and BACK edges.
+ */
+public class DepthFirstSearch {
+     public enum EdgeType { TREE, BACK, FORWARD, CROSS }
+
+     // every method is called on the searching thread, in recursive order
+     public interface Visitor {
+          default void preVisit(int v, int parent) {
+          }
+
+          default void edge(int u, int v, EdgeType type) {
+          }
+
+          default void postVisit(int v, int parent) {
+          }
+     }
+
+     static final int NODE = 0, NEXT_EDGE = 1, PARENT = 2, FRAME = 3;
+
+     private final CsrGraph graph;
+     private final boolean undirected;
+     // discovery and finish numbers, -1 until they happen
+     private final int pre[];
+     private final int post[];
+     private final int frames[];
+     private int preCount, postCount;
+
+     public DepthFirstSearch(CsrGraph graph) {
+          this.graph = graph;
+          this.undirected = graph.isUndirected();
+          int n = graph.vertexCount();
+          pre = new int[n];
+          post = new int[n];
+          frames = new int[FRAME * n];
+          reset();
+     }
+
+     // forgets every vertex discovered so far
+     public void reset() {
+          Arrays.fill(pre, -1);
+          Arrays.fill(post, -1);
+          preCount = 0;
+          postCount = 0;
+     }
+
+     // explores everything reachable from root that no earlier search reached
+     public void search(int root, Visitor visitor) {
+          if (root < 0 || root >= pre.length) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          if (pre[root] >= 0)
+               return;
+          int top = push(0, root, -1, visitor);
+          while (top > 0) {
+               int f = top - FRAME;
+               int u = frames[f + NODE];
+               int e = frames[f + NEXT_EDGE];
+               if (e == graph.endEdge(u)) {
+                    post[u] = postCount++;
+                    top = f;
+                    visitor.postVisit(u, top > 0 ? frames[top - FRAME + NODE] : -1);
+                    continue;
+               }
+               frames[f + NEXT_EDGE] = e + 1;
+               int v = graph.target(e);
+               if (pre[v] < 0) {
+                    visitor.edge(u, v, EdgeType.TREE);
+                    top = push(top, v, u, visitor);
+               } else if (undirected) {
+                    if (v == frames[f + PARENT]) {
+                         // the tree edge seen from below; a second arc to the parent is a real edge
+                         frames[f + PARENT] = -1;
+                    } else if (post[v] < 0) {
+                         visitor.edge(u, v, EdgeType.BACK);
+                    }
+                    // a finished v already reported this edge as BACK
+               } else if (post[v] < 0) {
+                    visitor.edge(u, v, EdgeType.BACK);
+               } else {
+                    visitor.edge(u, v, pre[v] > pre[u] ? EdgeType.FORWARD : EdgeType.CROSS);
+               }
+          }
+     }
+
+     // starts a search at every undiscovered vertex in id order
+     public void searchAll(Visitor visitor) {
+          reset();
+          for (int v = 0; v < pre.length; v++)
+               search(v, visitor);
+     }
+
+     public int preOrder(int v) {
+          return pre[v];
+     }
+
+     public int postOrder(int v) {
+          return post[v];
+     }
+
+     public CsrGraph graph() {
+          return graph;
+     }
+
+     int push(int top, int v, int parent, Visitor visitor) {
+          pre[v] = preCount++;
+          frames[top + NODE] = v;
+          frames[top + NEXT_EDGE] = graph.firstEdge(v);
+          frames[top + PARENT] = parent;
+          visitor.preVisit(v, parent);
+          return top + FRAME;
+     }
+}
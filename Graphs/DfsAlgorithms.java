@@ -0,0 +1,166 @@
+package Graphs;
+
+import java.util.Arrays;
+
+/*
+ * Connectivity questions answered with one DepthFirstSearch each, so they
+ * work on millions of vertices without recursion. Every result is a
+ * primitive array indexed by vertex.
+ */
+public class DfsAlgorithms {
+     // component id of every vertex of an undirected graph, numbered by smallest vertex
+     public static int[] components(CsrGraph g) {
+          requireUndirected(g);
+          int comp[] = new int[g.vertexCount()];
+          int count[] = new int[1];
+          new DepthFirstSearch(g).searchAll(new DepthFirstSearch.Visitor() {
+               @Override
+               public void preVisit(int v, int parent) {
+                    if (parent < 0)
+                         count[0]++;
+                    comp[v] = count[0] - 1;
+               }
+          });
+          return comp;
+     }
+
+     // a directed cycle, or for an undirected graph any cycle (self-loops and parallel edges count)
+     public static boolean hasCycle(CsrGraph g) {
+          boolean found[] = new boolean[1];
+          new DepthFirstSearch(g).searchAll(new DepthFirstSearch.Visitor() {
+               @Override
+               public void edge(int u, int v, DepthFirstSearch.EdgeType type) {
+                    if (type == DepthFirstSearch.EdgeType.BACK)
+                         found[0] = true;
+               }
+          });
+          return found[0];
+     }
+
+     // the vertices of an undirected graph whose removal disconnects their component, ascending
+     public static int[] articulationPoints(CsrGraph g) {
+          requireUndirected(g);
+          ArticulationPoints visitor = new ArticulationPoints(g);
+          visitor.dfs.searchAll(visitor);
+          int count = 0;
+          for (boolean b : visitor.cut) {
+               if (b)
+                    count++;
+          }
+          int points[] = new int[count];
+          for (int v = 0, i = 0; v < visitor.cut.length; v++) {
+               if (visitor.cut[v])
+                    points[i++] = v;
+          }
+          return points;
+     }
+
+     /*
+      * Tarjan: strongly connected component id of every vertex. Components
+      * are numbered in the order they are completed, which is a reverse
+      * topological order of the condensed graph: every arc between two
+      * components goes from a higher id to a lower one. In an undirected
+      * graph they are just the connected components.
+      */
+     public static int[] stronglyConnectedComponents(CsrGraph g) {
+          if (g.isUndirected())
+               return components(g);
+          Tarjan visitor = new Tarjan(g);
+          visitor.dfs.searchAll(visitor);
+          return visitor.comp;
+     }
+
+     static void requireUndirected(CsrGraph g) {
+          if (!g.isUndirected()) {
+               throw new IllegalArgumentException("needs an undirected graph");
+          }
+     }
+
+     // low[v] is the smallest discovery number reachable from v's subtree by one back edge
+     static final class ArticulationPoints implements DepthFirstSearch.Visitor {
+          final DepthFirstSearch dfs;
+          final int low[];
+          final boolean cut[];
+          // the root of the current search tree and how many subtrees it has
+          int root, rootChildren;
+
+          ArticulationPoints(CsrGraph g) {
+               dfs = new DepthFirstSearch(g);
+               low = new int[g.vertexCount()];
+               cut = new boolean[g.vertexCount()];
+          }
+
+          @Override
+          public void preVisit(int v, int parent) {
+               low[v] = dfs.preOrder(v);
+               if (parent < 0) {
+                    root = v;
+                    rootChildren = 0;
+               }
+          }
+
+          @Override
+          public void edge(int u, int v, DepthFirstSearch.EdgeType type) {
+               if (type == DepthFirstSearch.EdgeType.BACK)
+                    low[u] = Math.min(low[u], dfs.preOrder(v));
+          }
+
+          @Override
+          public void postVisit(int v, int parent) {
+               if (parent < 0) {
+                    // a root is a cut vertex when it has more than one subtree
+                    cut[v] = rootChildren > 1;
+                    return;
+               }
+               low[parent] = Math.min(low[parent], low[v]);
+               if (parent == root)
+                    rootChildren++;
+               else if (low[v] >= dfs.preOrder(parent))
+                    cut[parent] = true;
+          }
+     }
+
+     static final class Tarjan implements DepthFirstSearch.Visitor {
+          final DepthFirstSearch dfs;
+          final int low[];
+          // -1 while the vertex is still on the stack of open components
+          final int comp[];
+          final int stack[];
+          int size, count;
+
+          Tarjan(CsrGraph g) {
+               dfs = new DepthFirstSearch(g);
+               int n = g.vertexCount();
+               low = new int[n];
+               comp = new int[n];
+               Arrays.fill(comp, -1);
+               stack = new int[n];
+          }
+
+          @Override
+          public void preVisit(int v, int parent) {
+               low[v] = dfs.preOrder(v);
+               stack[size++] = v;
+          }
+
+          @Override
+          public void edge(int u, int v, DepthFirstSearch.EdgeType type) {
+               if (type != DepthFirstSearch.EdgeType.TREE && comp[v] < 0)
+                    low[u] = Math.min(low[u], dfs.preOrder(v));
+          }
+
+          @Override
+          public void postVisit(int v, int parent) {
+               if (low[v] == dfs.preOrder(v)) {
+                    int w;
+                    do {
+                         w = stack[--size];
+                         comp[w] = count;
+                    } while (w != v);
+                    count++;
+               }
+               if (parent >= 0)
+                    low[parent] = Math.min(low[parent], low[v]);
+          }
+     }
+}
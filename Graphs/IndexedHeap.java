@@ -0,0 +1,147 @@
+package Graphs;
+
+import java.util.Arrays;
+
+/*
+ * d-ary min-heap of int ids 0 .. capacity - 1 with long keys and
+ * decrease-key.
+ *
+ * Each id is in the heap at most once: pos[id] says where, so a lower key
+ * moves the entry up in place instead of adding a second copy. The heap
+ * never holds more than capacity entries, nothing is allocated after the
+ * constructor, and polled entries are never stale. Keys are compared,
+ * never subtracted, so no comparison can overflow.
+ *
+ * A wider node (arity 4 by default) makes the heap shallower: sift-up,
+ * which every decrease-key does, gets cheaper, and a sift-down scans the
+ * d children, which sit next to each other in memory.
+ */
+public class IndexedHeap {
+     public static final int DEFAULT_ARITY = 4;
+
+     private final int arity;
+     // heap[0, size) holds ids; pos[id] is the index of id in heap, or -1
+     private final int heap[];
+     private final int pos[];
+     private final long keys[];
+     private int size;
+
+     public IndexedHeap(int capacity) {
+          this(capacity, DEFAULT_ARITY);
+     }
+
+     public IndexedHeap(int capacity, int arity) {
+          if (capacity < 0 || arity < 2) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          this.arity = arity;
+          heap = new int[capacity];
+          pos = new int[capacity];
+          keys = new long[capacity];
+          Arrays.fill(pos, -1);
+     }
+
+     public int size() {
+          return size;
+     }
+
+     public boolean isEmpty() {
+          return size == 0;
+     }
+
+     public boolean contains(int id) {
+          return pos[id] >= 0;
+     }
+
+     // the key of an id in the heap
+     public long key(int id) {
+          if (pos[id] < 0) {
+               throw new IllegalArgumentException(id + " is not in the heap");
+          }
+          return keys[id];
+     }
+
+     // inserts id, or lowers its key; returns false (and changes nothing) if key is not lower
+     public boolean offer(int id, long key) {
+          int i = pos[id];
+          if (i < 0) {
+               keys[id] = key;
+               siftUp(size++, id);
+               return true;
+          }
+          if (key >= keys[id])
+               return false;
+          keys[id] = key;
+          siftUp(i, id);
+          return true;
+     }
+
+     // the id with the smallest key
+     public int peek() {
+          if (size == 0) {
+               throw new IllegalStateException("heap is empty");
+          }
+          return heap[0];
+     }
+
+     // removes and returns the id with the smallest key
+     public int poll() {
+          int top = peek();
+          pos[top] = -1;
+          int last = heap[--size];
+          if (size > 0)
+               siftDown(0, last);
+          return top;
+     }
+
+     public void clear() {
+          for (int i = 0; i < size; i++)
+               pos[heap[i]] = -1;
+          size = 0;
+     }
+
+     // places id at index i or above, moving larger parents down
+     void siftUp(int i, int id) {
+          long key = keys[id];
+          while (i > 0) {
+               int parent = (i - 1) / arity;
+               int p = heap[parent];
+               if (keys[p] <= key)
+                    break;
+               heap[i] = p;
+               pos[p] = i;
+               i = parent;
+          }
+          heap[i] = id;
+          pos[id] = i;
+     }
+
+     // places id at index i or below, moving the smallest child up
+     void siftDown(int i, int id) {
+          long key = keys[id];
+          while (true) {
+               long firstChild = (long) i * arity + 1;
+               if (firstChild >= size)
+                    break;
+               int first = (int) firstChild;
+               int end = (int) Math.min(firstChild + arity, size);
+               int best = first;
+               long bestKey = keys[heap[first]];
+               for (int c = first + 1; c < end; c++) {
+                    long k = keys[heap[c]];
+                    if (k < bestKey) {
+                         best = c;
+                         bestKey = k;
+                    }
+               }
+               if (bestKey >= key)
+                    break;
+               int child = heap[best];
+               heap[i] = child;
+               pos[child] = i;
+               i = best;
+          }
+          heap[i] = id;
+          pos[id] = i;
+     }
+}
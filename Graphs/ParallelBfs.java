@@ -0,0 +1,348 @@
+package Graphs;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Level-synchronous, direction-optimizing breadth-first search (Beamer,
+ * Asanovic and Patterson) over a CsrGraph.
+ *
+ * Every level is expanded in parallel, and the threads meet at a barrier
+ * between levels. A level runs in one of two directions:
+ * - top-down: the frontier is an int[] of vertices. Each thread scans the
+ *   arcs of its share of the frontier and claims unvisited targets by
+ *   setting their bit in the visited bitset with a CAS. Only the thread
+ *   whose CAS succeeds records the vertex.
+ * - bottom-up: the frontier is a bitset. Each thread owns a range of
+ *   64-vertex words. For every unvisited vertex in its range it scans the
+ *   incoming arcs until it finds one from the frontier. No CAS is needed,
+ *   and most scans stop after a few arcs.
+ *
+ * Top-down is cheap while the frontier is small. Bottom-up wins once the
+ * frontier's arcs (mf) outnumber the arcs of the still unvisited vertices
+ * (mu) divided by ALPHA. The search goes back to top-down when the
+ * frontier shrinks below n / BETA vertices. Distances are the same in
+ * either direction. The parent picked for a vertex may differ from run to
+ * run, but it is always one level closer to the source.
+ *
+ * Bottom-up needs incoming arcs: an undirected graph is its own transpose,
+ * and a directed one is transposed once in the constructor.
+ */
+public class ParallelBfs {
+     public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 12;
+     static final int ALPHA = 14;
+     static final int BETA = 24;
+     // vertices a task collects before appending them to the shared frontier
+     static final int LOCAL_BUFFER = 256;
+     // CAS on the words of a long[] bitset
+     static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+     // called once per reached vertex, from the thread that reached it
+     public interface Visitor {
+          void visit(int vertex, int parent, int depth);
+     }
+
+     public static final class Result {
+          // hops from the source, or -1 where it cannot be reached
+          public final int dist[];
+          // the previous vertex on a shortest path; -1 at the source and where unreached
+          public final int parent[];
+          public final int reached;
+          // the greatest distance, and how many levels went bottom-up
+          public final int depth;
+          public final int bottomUpLevels;
+
+          Result(int[] dist, int[] parent, int reached, int depth, int bottomUpLevels) {
+               this.dist = dist;
+               this.parent = parent;
+               this.reached = reached;
+               this.depth = depth;
+               this.bottomUpLevels = bottomUpLevels;
+          }
+     }
+
+     private final CsrGraph graph;
+     private final CsrGraph incoming;
+     private final int parallelThreshold;
+     private final ForkJoinPool pool;
+
+     public ParallelBfs(CsrGraph graph) {
+          this(graph, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+     }
+
+     // levels with fewer than parallelThreshold vertices (or words) run on the calling thread
+     public ParallelBfs(CsrGraph graph, int parallelThreshold, ForkJoinPool pool) {
+          if (parallelThreshold < 1) {
+               throw new IllegalArgumentException("threshold must be positive");
+          }
+          this.graph = graph;
+          this.incoming = graph.transpose();
+          this.parallelThreshold = parallelThreshold;
+          this.pool = pool;
+     }
+
+     public Result search(int source) {
+          return search(source, null);
+     }
+
+     // visitor may be null; otherwise it must be safe to call from several threads at once
+     public Result search(int source, Visitor visitor) {
+          int n = graph.vertexCount();
+          if (source < 0 || source >= n) {
+               throw new IllegalArgumentException("Invalid input");
+          }
+          return new Search(visitor).run(source);
+     }
+
+     // one search's state; the arrays are shared by the tasks of every level
+     final class Search {
+          final Visitor visitor;
+          final int n = graph.vertexCount();
+          final int words = (n + 63) >>> 6;
+          final int dist[] = new int[n];
+          final int parent[] = new int[n];
+          final long visited[] = new long[words];
+          // top-down frontiers, current and next
+          int queue[] = new int[n];
+          int nextQueue[] = new int[n];
+          // bottom-up frontiers, made on the first switch
+          long bits[], nextBits[];
+          // size of the level just built, and the out-arcs of its vertices
+          final AtomicInteger tail = new AtomicInteger();
+          final AtomicLong frontierArcs = new AtomicLong();
+
+          Search(Visitor visitor) {
+               this.visitor = visitor;
+          }
+
+          Result run(int source) {
+               forEach(n, (from, to) -> {
+                    Arrays.fill(dist, from, to, -1);
+                    Arrays.fill(parent, from, to, -1);
+               });
+               claim(source);
+               dist[source] = 0;
+               if (visitor != null)
+                    visitor.visit(source, -1, 0);
+               queue[0] = source;
+               int size = 1, reached = 1, depth = 0, bottomUpLevels = 0;
+               long mf = graph.degree(source);
+               long mu = graph.edgeCount() - mf;
+               boolean bottomUp = false;
+               while (size > 0) {
+                    if (!bottomUp && mf > mu / ALPHA) {
+                         toBits(size);
+                         bottomUp = true;
+                    } else if (bottomUp && size < n / BETA) {
+                         toQueue();
+                         bottomUp = false;
+                    }
+                    depth++;
+                    tail.set(0);
+                    frontierArcs.set(0);
+                    if (bottomUp) {
+                         bottomUpLevel(depth);
+                         bottomUpLevels++;
+                         long t[] = bits;
+                         bits = nextBits;
+                         nextBits = t;
+                    } else {
+                         topDownLevel(size, depth);
+                         int t[] = queue;
+                         queue = nextQueue;
+                         nextQueue = t;
+                    }
+                    size = tail.get();
+                    mf = frontierArcs.get();
+                    mu -= mf;
+                    reached += size;
+               }
+               return new Result(dist, parent, reached, depth - 1, bottomUpLevels);
+          }
+
+          void topDownLevel(int size, int depth) {
+               int frontier[] = queue;
+               // a level on one thread has no one to race with, so it claims without CAS
+               boolean shared = inParallel(size);
+               forEach(size, (from, to) -> {
+                    CsrGraph g = graph;
+                    int buffer[] = new int[LOCAL_BUFFER];
+                    int len = 0;
+                    long arcs = 0;
+                    for (int i = from; i < to; i++) {
+                         int u = frontier[i];
+                         for (int e = g.firstEdge(u), end = g.endEdge(u); e < end; e++) {
+                              int v = g.target(e);
+                              if (shared ? !claim(v) : !claimAlone(v))
+                                   continue;
+                              parent[v] = u;
+                              dist[v] = depth;
+                              if (visitor != null)
+                                   visitor.visit(v, u, depth);
+                              arcs += g.degree(v);
+                              buffer[len++] = v;
+                              if (len == LOCAL_BUFFER) {
+                                   append(buffer, len);
+                                   len = 0;
+                              }
+                         }
+                    }
+                    append(buffer, len);
+                    frontierArcs.addAndGet(arcs);
+               });
+          }
+
+          void bottomUpLevel(int depth) {
+               long frontier[] = bits, next[] = nextBits;
+               forEach(words, (from, to) -> {
+                    int count = 0;
+                    long arcs = 0;
+                    for (int w = from; w < to; w++) {
+                         // this task alone writes words [from, to) of visited and next
+                         long seen = visited[w];
+                         long found = 0;
+                         long unvisited = ~seen;
+                         if (w == words - 1 && (n & 63) != 0)
+                              unvisited &= (1L << n) - 1;
+                         while (unvisited != 0) {
+                              int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                              unvisited &= unvisited - 1;
+                              for (int e = incoming.firstEdge(v); e < incoming.endEdge(v); e++) {
+                                   int u = incoming.target(e);
+                                   if ((frontier[u >>> 6] & (1L << u)) == 0)
+                                        continue;
+                                   parent[v] = u;
+                                   dist[v] = depth;
+                                   if (visitor != null)
+                                        visitor.visit(v, u, depth);
+                                   found |= 1L << v;
+                                   count++;
+                                   arcs += graph.degree(v);
+                                   break;
+                              }
+                         }
+                         visited[w] = seen | found;
+                         next[w] = found;
+                    }
+                    tail.addAndGet(count);
+                    frontierArcs.addAndGet(arcs);
+               });
+          }
+
+          // queue[0, size) -> bits
+          void toBits(int size) {
+               if (bits == null) {
+                    bits = new long[words];
+                    nextBits = new long[words];
+               } else {
+                    forEach(words, (from, to) -> Arrays.fill(bits, from, to, 0));
+               }
+               int frontier[] = queue;
+               forEach(size, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                         int v = frontier[i];
+                         WORDS.getAndBitwiseOr(bits, v >>> 6, 1L << v);
+                    }
+               });
+          }
+
+          // bits -> queue, in no particular order
+          void toQueue() {
+               tail.set(0);
+               forEach(words, (from, to) -> {
+                    int buffer[] = new int[LOCAL_BUFFER];
+                    int len = 0;
+                    for (int w = from; w < to; w++) {
+                         for (long word = bits[w]; word != 0; word &= word - 1) {
+                              buffer[len++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                              if (len == LOCAL_BUFFER) {
+                                   appendTo(queue, buffer, len);
+                                   len = 0;
+                              }
+                         }
+                    }
+                    appendTo(queue, buffer, len);
+               });
+          }
+
+          // sets v's visited bit; true only for the one caller that set it
+          boolean claim(int v) {
+               int w = v >>> 6;
+               long bit = 1L << v;
+               // a plain read filters out most visited vertices without a CAS
+               long old = visited[w];
+               while ((old & bit) == 0) {
+                    long witness = (long) WORDS.compareAndExchange(visited, w, old, old | bit);
+                    if (witness == old)
+                         return true;
+                    old = witness;
+               }
+               return false;
+          }
+
+          // claim() for a level that runs on one thread
+          boolean claimAlone(int v) {
+               long bit = 1L << v;
+               if ((visited[v >>> 6] & bit) != 0)
+                    return false;
+               visited[v >>> 6] |= bit;
+               return true;
+          }
+
+          void append(int[] buffer, int len) {
+               appendTo(nextQueue, buffer, len);
+          }
+
+          void appendTo(int[] target, int[] buffer, int len) {
+               if (len == 0)
+                    return;
+               int at = tail.getAndAdd(len);
+               System.arraycopy(buffer, 0, target, at, len);
+          }
+     }
+
+     interface Range {
+          void run(int from, int to);
+     }
+
+     boolean inParallel(int count) {
+          return count >= parallelThreshold && pool != null && pool.getParallelism() > 1;
+     }
+
+     void forEach(int count, Range body) {
+          if (!inParallel(count)) {
+               body.run(0, count);
+               return;
+          }
+          pool.invoke(new RangeTask(body, 0, count, parallelThreshold));
+     }
+
+     static final class RangeTask extends RecursiveAction {
+          private static final long serialVersionUID = 1L;
+
+          final Range body;
+          final int from, to, grain;
+
+          RangeTask(Range body, int from, int to, int grain) {
+               this.body = body;
+               this.from = from;
+               this.to = to;
+               this.grain = grain;
+          }
+
+          @Override
+          protected void compute() {
+               if (to - from <= grain) {
+                    body.run(from, to);
+                    return;
+               }
+               int mid = (from + to) >>> 1;
+               invokeAll(new RangeTask(body, from, mid, grain), new RangeTask(body, mid, to, grain));
+          }
+     }
+}
@@ -0,0 +1,127 @@
+package Graphs;
+
+import java.util.Arrays;
+
+/*
+ * Minimum spanning forest of an undirected weighted CsrGraph by Prim.
+ *
+ * Two variants share one result:
+ * - heap: an IndexedHeap keyed by the cheapest known edge into the tree.
+ *   Each vertex is in the heap at most once, and a cheaper edge lowers
+ *   its key, so the work is O(E log V) with at most V heap entries.
+ * - dense: the cheapest-edge keys sit in a plain long[] that is scanned
+ *   for its minimum at every step, which is O(V^2 + E) with no heap at
+ *   all. Once the average degree reaches about V / 4 it beats the heap.
+ * minimumSpanningForest() picks one by edge density.
+ *
+ * A vertex that no tree edge reaches starts a new tree, so a disconnected
+ * graph yields one tree per component. Self-loops are ignored.
+ */
+public class PrimMst {
+     // dense is picked once the average degree reaches V / DENSE_DIVISOR; measured break-even
+     static final int DENSE_DIVISOR = 4;
+
+     public static final class Result {
+          // vertices in the order they joined the forest
+          public final int order[];
+          // tree neighbour of every vertex, -1 at the root of each tree
+          public final int parent[];
+          // weight of the edge to parent, 0 at the roots
+          public final long parentWeight[];
+          public final long totalWeight;
+          public final int trees;
+
+          Result(int[] order, int[] parent, long[] parentWeight, long totalWeight, int trees) {
+               this.order = order;
+               this.parent = parent;
+               this.parentWeight = parentWeight;
+               this.totalWeight = totalWeight;
+               this.trees = trees;
+          }
+     }
+
+     public static Result minimumSpanningForest(CsrGraph g) {
+          long n = g.vertexCount();
+          if (n > 0 && (long) g.edgeCount() * DENSE_DIVISOR >= n * n)
+               return dense(g);
+          return withHeap(g, IndexedHeap.DEFAULT_ARITY);
+     }
+
+     public static Result withHeap(CsrGraph g, int arity) {
+          requireUndirected(g);
+          int n = g.vertexCount();
+          int order[] = new int[n];
+          int parent[] = new int[n];
+          long parentWeight[] = new long[n];
+          boolean inTree[] = new boolean[n];
+          Arrays.fill(parent, -1);
+          IndexedHeap heap = new IndexedHeap(n, arity);
+          long total = 0;
+          int added = 0, trees = 0;
+          for (int root = 0; root < n; root++) {
+               if (inTree[root])
+                    continue;
+               trees++;
+               heap.offer(root, 0);
+               while (!heap.isEmpty()) {
+                    long w = heap.key(heap.peek());
+                    int u = heap.poll();
+                    inTree[u] = true;
+                    order[added++] = u;
+                    total += w;
+                    parentWeight[u] = w;
+                    for (int e = g.firstEdge(u); e < g.endEdge(u); e++) {
+                         int v = g.target(e);
+                         if (!inTree[v] && heap.offer(v, g.weight(e)))
+                              parent[v] = u;
+                    }
+               }
+          }
+          return new Result(order, parent, parentWeight, total, trees);
+     }
+
+     public static Result dense(CsrGraph g) {
+          requireUndirected(g);
+          int n = g.vertexCount();
+          int order[] = new int[n];
+          int parent[] = new int[n];
+          long key[] = new long[n];
+          boolean inTree[] = new boolean[n];
+          // v has a tree edge offered; key[v] means nothing until then, so any long is a valid weight
+          boolean reached[] = new boolean[n];
+          Arrays.fill(parent, -1);
+          long total = 0;
+          int trees = 0;
+          for (int added = 0; added < n; added++) {
+               int u = -1;
+               for (int v = 0; v < n; v++) {
+                    if (!inTree[v] && (u < 0 || reached[v] && (!reached[u] || key[v] < key[u])))
+                         u = v;
+               }
+               if (!reached[u]) {
+                    // nothing in the forest reaches u: it roots a new tree
+                    key[u] = 0;
+                    trees++;
+               }
+               inTree[u] = true;
+               order[added] = u;
+               total += key[u];
+               for (int e = g.firstEdge(u); e < g.endEdge(u); e++) {
+                    int v = g.target(e);
+                    long w = g.weight(e);
+                    if (!inTree[v] && (!reached[v] || w < key[v])) {
+                         reached[v] = true;
+                         key[v] = w;
+                         parent[v] = u;
+                    }
+               }
+          }
+          return new Result(order, parent, key, total, trees);
+     }
+
+     static void requireUndirected(CsrGraph g) {
+          if (!g.isUndirected()) {
+               throw new IllegalArgumentException("needs an undirected graph");
+          }
+     }
+}
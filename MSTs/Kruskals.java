@@ -1,14 +1,14 @@
+import java.util.*;
+import Graphs.CsrGraph;
+
 class Kruskals{
-  static class Edge implements Comparable<Edge>{
-    int u,v,w;
-    Edge(int u, int v, int w) { this.u = u; this.v = v; this.w = w; }
-    public int compareTo(Edge other){
-      return this.w - other.w;
-    }
-  }
   static class DSU{
     int[] parent, rank;
-    for(int i=0;i<n;i++)parent[i]=i;
+    DSU(int n){
+      parent=new int[n];
+      rank=new int[n];
+      for(int i=0;i<n;i++)parent[i]=i;
+    }
     int find(int x){
       return parent[x]==x?x:(parent[x]=find(parent[x]));
 //kya x ka parent x khud hai? agar nahi hai toh recrssively x ke parent ke parent ko dhund....
@@ -26,28 +26,52 @@ class Kruskals{
     return true;
     }
   }
-  static void KruskalMST(int V, List<Edge>edges){
-    Collections.sort(edges);
+  //every undirected edge is stored as two arcs; take the one with u<v
+  static void KruskalMST(int V, CsrGraph g){
+    int m=0;
+    for(int u=0;u<V;u++)
+      for(int e=g.firstEdge(u);e<g.endEdge(u);e++)if(u<g.target(e))m++;
+    int[] from=new int[m], arc=new int[m];
+    long[] weights=new long[m];
+    m=0;
+    for(int u=0;u<V;u++)
+      for(int e=g.firstEdge(u);e<g.endEdge(u);e++)
+        if(u<g.target(e)){
+          from[m]=u;
+          arc[m]=e;
+          weights[m]=g.weight(e);
+          m++;
+        }
+    //a weight may need all 64 bits, but its rank among the sorted weights fits in 32:
+    //rank in the high half, edge index in the low half, so one primitive sort orders by weight
+    long[] sorted=weights.clone();
+    Arrays.sort(sorted);
+    long[] order=new long[m];
+    for(int i=0;i<m;i++)order[i]=((long)Arrays.binarySearch(sorted, weights[i])<<32)|i;
+    Arrays.sort(order);
     DSU dsu=new DSU(V);
-    int total=0;
+    long total=0;
     System.out.println("Kruskal's MST edges:");
-    for(Edge e: edges){
-      if(dsu.union(e.u, e.v)){
-          System.out.println(e.u + " - " + e.v + " : " + e.w);
-          total += e.w;
+    for(long key: order){
+      int i=(int)key;
+      int u=from[i], v=g.target(arc[i]);
+      long w=g.weight(arc[i]);
+      if(dsu.union(u, v)){
+          System.out.println(u + " - " + v + " : " + w);
+          total += w;
       }
     }
     System.out.println("Total MST weight = " + total); 
   }
   public static void main(String[] args){
     int V=4;
-    List<Edge> edges = Arrays.asList(
-            new Edge(0, 1, 10),
-            new Edge(0, 2, 6),
-            new Edge(0, 3, 5),
-            new Edge(1, 3, 15),
-            new Edge(2, 3, 4)
-        );
-    kruskalMST(V, edges);
+    CsrGraph g = new CsrGraph.Builder(V, true)
+            .addEdge(0, 1, 10)
+            .addEdge(0, 2, 6)
+            .addEdge(0, 3, 5)
+            .addEdge(1, 3, 15)
+            .addEdge(2, 3, 4)
+            .build();
+    KruskalMST(V, g);
   }
 }
@@ -1,42 +1,29 @@
-import java.util.*;
+import Graphs.CsrGraph;
+import Graphs.PrimMst;
 
 class PrimsAlgo{
-static class Edge{
-  int destiny;
-  Edge(int d, int w){destiny=d;weight=w;}
-}
-  static void PRIMMST(int V, List<List<Edge>>adj){
-    boolean vis=new boolean[V];
-    PriorityQueue<int[]>pq=new PriorityQueue<>((a,b)->a[1]-b[1]);
-    pq.add(new int[](0,0));
-    int totalWeight=0;
+  //indexed-heap (or dense array) Prim: every vertex joins once, so nothing is counted twice
+  static void PRIMMST(int V, CsrGraph adj){
+    PrimMst.Result mst=PrimMst.minimumSpanningForest(adj);
     System.out.println("Prim's MST edges:");
-    while(!pq.isEmpty()){
-      int[] current=pq.poll();
-      int u=current[0], w=current[1];
-      vis[u]=true;
-      totalWeight+=w;
-      System.out.println("Include " + u + " with weight " + w);
-      for(Edge e: adj.get(u)){
-        if(!vis[e.destiny])pq.add(new int[](e.destiny, e.weight));
-      }
+    for(int u: mst.order){
+      System.out.println("Include " + u + " with weight " + mst.parentWeight[u]);
     }
-    System.out.println("Total MST weight = " + totalWeight);
+    System.out.println("Total MST weight = " + mst.totalWeight);
 
   }
     public static void main(String[] args) {
         int V = 5;
-        List<List<Edge>> adj = new ArrayList<>();
-        for (int i = 0; i < V; i++) adj.add(new ArrayList<>());
+        CsrGraph.Builder edges = new CsrGraph.Builder(V, true);
 
-        adj.get(0).add(new Edge(1, 2));
-        adj.get(0).add(new Edge(3, 6));
-        adj.get(1).add(new Edge(2, 3));
-        adj.get(1).add(new Edge(3, 8));
-        adj.get(1).add(new Edge(4, 5));
-        adj.get(2).add(new Edge(4, 7));
-        adj.get(3).add(new Edge(4, 9));
+        edges.addEdge(0, 1, 2);
+        edges.addEdge(0, 3, 6);
+        edges.addEdge(1, 2, 3);
+        edges.addEdge(1, 3, 8);
+        edges.addEdge(1, 4, 5);
+        edges.addEdge(2, 4, 7);
+        edges.addEdge(3, 4, 9);
 
-        PRIMMST(V, adj);
+        PRIMMST(V, edges.build());
     }
 }
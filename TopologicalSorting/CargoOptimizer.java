@@ -5,6 +5,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import Graphs.CsrGraph;
 
 public class CargoOptimizer {
      // class city
@@ -28,70 +29,102 @@ public class CargoOptimizer {
           }
      }
 
-     // class edge
-     static class Route {
-          String from;
-          String to;
-          int weight;
-
-          public Route(String from, String to, int weight) {
-               this.from = from;
-               this.to = to;
-               this.weight = weight;
-          }
-
-          @Override
-          public String toString() {
-               return from + " -> " + to + " (weight: " + weight + ")";
-          }
-     }
-
-     /// Graph representation using adjancacy list
+     /// Graph representation in compressed sparse row form
      private Map<String, City> cities;
      // Map of city id to city objects
-     private Map<String, List<Route>> adjacencyList;
-     // Adjacnecy list of city-> list of outgoing routes
-     private Map<String, Integer> indegree;
-     // Indegree count for each city
+     private Map<String, Integer> index;
+     // city id -> vertex number in the graph
+     private List<String> ids;
+     // vertex number -> city id
+     private CsrGraph graph;
+     // routes leaving vertex u are graph.firstEdge(u) .. graph.endEdge(u) - 1
 
      // Constructor
      /// O(1) lookup hashmap
      public CargoOptimizer() {
           this.cities = new HashMap<>();
-          this.adjacencyList = new HashMap<>();
-          this.indegree = new HashMap<>();
+          this.index = new HashMap<>();
+          this.ids = new ArrayList<>();
      }
 
      // loads data
      // nodes and edges to build graph
-     public void loadData(String filename) {
-          try {
-               JSONParser parser = new JSONParser();
-               JsonObject data = (JsonObject) parser.parse(new FileReader(filename));
-               // Load all cities(nide)
-               JSONArray nodes = (JSONArray) data.get("nodes");
-               for (Object node : nodes) {
-                    JSONObject cityObj = (JSONObject) node;
-                    String id = (String) cityObj.get("id");
-                    String type = (String) cityObj.get("type");
-                    int capacity = ((Long) cityObj.get("capacity")).intValue();
-                    City city = new City(id, type, capacity);
-                    cities.put(id, city);
-                    adjacencyList.put(id, new ArrayList<>());// initally empty List
-                    indegree.put(id, 0);
+     public void loadData(String filename) throws IOException, ParseException {
+          JSONParser parser = new JSONParser();
+          JSONObject data;
+          try (Reader reader = new FileReader(filename)) {
+               data = (JSONObject) parser.parse(reader);
+          }
+          // Load all cities(nide)
+          JSONArray nodes = (JSONArray) data.get("nodes");
+          for (Object node : nodes) {
+               JSONObject cityObj = (JSONObject) node;
+               String id = (String) cityObj.get("id");
+               String type = (String) cityObj.get("type");
+               int capacity = ((Long) cityObj.get("capacity")).intValue();
+               City city = new City(id, type, capacity);
+               if (cities.put(id, city) == null) {
+                    index.put(id, ids.size());
+                    ids.add(id);
                }
-               JSONArray edges = (JSONArray) data.get("edges");
-               for (Object edge : edges) {
-                    JSONObject edgeObj = (JSONObject) edge;
-                    String from = (String) edgeObj.get("from");
-                    String to = (String) edgeObj.get("to");
-                    int weight = ((Long) edgeObj.get("weight")).intValue();
-                    Route route = new Route(from, to, weight);
-                    adjacencyList.get(from).add(route);
+          }
+          JSONArray edges = (JSONArray) data.get("edges");
+          CsrGraph.Builder builder = new CsrGraph.Builder(ids.size(), false);
+          for (Object edge : edges) {
+               JSONObject edgeObj = (JSONObject) edge;
+               String from = (String) edgeObj.get("from");
+               String to = (String) edgeObj.get("to");
+               int weight = ((Long) edgeObj.get("weight")).intValue();
+               builder.addEdge(vertex(from), vertex(to), weight);
+          }
+          graph = builder.build();
+     }
+
+     int vertex(String id) {
+          Integer v = index.get(id);
+          if (v == null) {
+               throw new IllegalArgumentException("unknown city " + id);
+          }
+          return v;
+     }
+
+     // Kahn's algorithm: int[] indegrees and an int[] queue over the graph
+     public List<City> topologicalOrder() {
+          int n = graph.vertexCount();
+          int indegree[] = new int[n];
+          for (int e = 0; e < graph.edgeCount(); e++)
+               indegree[graph.target(e)]++;
+          // queue[head, tail) waits; queue[0, head) is the order so far
+          int queue[] = new int[n];
+          int head = 0, tail = 0;
+          for (int u = 0; u < n; u++) {
+               if (indegree[u] == 0)
+                    queue[tail++] = u;
+          }
+          while (head < tail) {
+               int u = queue[head++];
+               for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (--indegree[v] == 0)
+                         queue[tail++] = v;
                }
-          } catch (Exception e) {
-               return e.getMessage();
           }
+          if (tail < n) {
+               throw new IllegalStateException("routes contain a cycle; " + (n - tail) + " cities cannot be ordered");
+          }
+          List<City> order = new ArrayList<>(n);
+          for (int i = 0; i < n; i++)
+               order.add(cities.get(ids.get(queue[i])));
+          return order;
      }
 
+     public CsrGraph graph() {
+          return graph;
+     }
+
+     public static void main(String[] args) throws Exception {
+          CargoOptimizer optimizer = new CargoOptimizer();
+          optimizer.loadData(args.length > 0 ? args[0] : "data.json");
+          System.out.println("Delivery order: " + optimizer.topologicalOrder());
+     }
 }
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import KthSmallestElement.KthSmallestElement;
+
+/*
+ * Kth smallest element of a row- and column-sorted matrix.
+ *
+ * priorityQueue is the previous implementation (every cell boxed into a
+ * PriorityQueue) and serves as the baseline. WIDE matrices have 1/16 as
+ * many rows as a SQUARE matrix of the same size and 16 times as many
+ * columns. k is a fraction of the cell count: 1e-4 favours the frontier
+ * heap, 0.5 the value-range search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MatrixSelectBenchmark {
+     @Param({ "100", "1000", "4000" })
+     public int size;
+
+     @Param({ "SQUARE", "WIDE" })
+     public String shape;
+
+     @Param({ "0.0001", "0.5" })
+     public double kFraction;
+
+     private int[][] matrix;
+     private int k;
+
+     private final KthSmallestElement select = new KthSmallestElement();
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          int rows = shape.equals("WIDE") ? Math.max(1, size / 16) : size;
+          int cols = shape.equals("WIDE") ? size * 16 : size;
+          SplittableRandom rnd = new SplittableRandom(42L);
+          matrix = new int[rows][cols];
+          for (int i = 0; i < rows; i++) {
+               for (int j = 0; j < cols; j++) {
+                    int up = i > 0 ? matrix[i - 1][j] : 0;
+                    int left = j > 0 ? matrix[i][j - 1] : 0;
+                    matrix[i][j] = Math.max(up, left) + rnd.nextInt(4);
+               }
+          }
+          k = (int) Math.max(1, Math.min((long) rows * cols, (long) (kFraction * rows * cols)));
+     }
+
+     @Benchmark
+     public int priorityQueue() {
+          PriorityQueue<Integer> minHeap = new PriorityQueue<>();
+          for (int[] row : matrix) {
+               for (int v : row) {
+                    minHeap.offer(v);
+               }
+          }
+          for (int i = 0; i < k - 1; i++) {
+               minHeap.poll();
+          }
+          return minHeap.poll();
+     }
+
+     @Benchmark
+     public int kthSmallestInMatrix() {
+          return select.kthSmallestInMatrix(matrix, k);
+     }
+
+     @Benchmark
+     public int valueRange() {
+          return select.kthSmallestByValueRange(matrix, k);
+     }
+
+     @Benchmark
+     public int frontier() {
+          return select.kthSmallestByFrontier(matrix, k);
+     }
+}
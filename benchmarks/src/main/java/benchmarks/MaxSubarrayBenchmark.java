@@ -0,0 +1,117 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Kadane.Kadane;
+import Kadane.MaxSubarrayTree;
+
+/*
+ * A series that changes in place while the best subarray is asked for,
+ * either over the whole series or inside a random [l, r].
+ *
+ * Every invocation replays the same OPS operations: point updates with
+ * probability updateRatio, otherwise queries (half of them whole-series,
+ * half random ranges). rescan answers each query by running Kadane over
+ * the range again; tree keeps a MaxSubarrayTree up to date instead.
+ * Scores are per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaxSubarrayBenchmark {
+     static final int OPS = 1024;
+
+     @Param({ "1000", "100000", "1000000" })
+     public int size;
+
+     @Param({ "0.1", "0.5", "0.9" })
+     public double updateRatio;
+
+     private int[] series;
+     private MaxSubarrayTree tree;
+     // operation i: kind[i] 0 = update, 1 = whole-series query, 2 = range query
+     private final int[] kind = new int[OPS];
+     private final int[] a = new int[OPS];
+     private final int[] b = new int[OPS];
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          SplittableRandom rnd = new SplittableRandom(42L);
+          series = new int[size];
+          for (int i = 0; i < size; i++) {
+               series[i] = rnd.nextInt(2001) - 1000;
+          }
+          tree = new MaxSubarrayTree(series);
+          for (int i = 0; i < OPS; i++) {
+               if (rnd.nextDouble() < updateRatio) {
+                    kind[i] = 0;
+                    a[i] = rnd.nextInt(size);
+                    b[i] = rnd.nextInt(2001) - 1000;
+               } else {
+                    kind[i] = rnd.nextBoolean() ? 1 : 2;
+                    int l = rnd.nextInt(size), r = rnd.nextInt(size);
+                    a[i] = Math.min(l, r);
+                    b[i] = Math.max(l, r);
+               }
+          }
+     }
+
+     @Benchmark
+     @OperationsPerInvocation(OPS)
+     public long rescan() {
+          long sink = 0;
+          for (int i = 0; i < OPS; i++) {
+               if (kind[i] == 0)
+                    series[a[i]] = b[i];
+               else if (kind[i] == 1)
+                    sink += Kadane.kadane(series);
+               else
+                    sink += kadane(series, a[i], b[i]);
+          }
+          return sink;
+     }
+
+     @Benchmark
+     @OperationsPerInvocation(OPS)
+     public long tree() {
+          long sink = 0;
+          for (int i = 0; i < OPS; i++) {
+               if (kind[i] == 0)
+                    tree.set(a[i], b[i]);
+               else if (kind[i] == 1)
+                    sink += tree.maxSubarraySum();
+               else
+                    sink += tree.maxSubarraySum(a[i], b[i]);
+          }
+          return sink;
+     }
+
+     // Kadane.kadane restricted to arr[l..r]
+     static long kadane(int[] arr, int l, int r) {
+          long maxSumSoFar = arr[l];
+          long maxEndingHere = arr[l];
+          for (int i = l + 1; i <= r; i++) {
+               maxEndingHere = Math.max(maxEndingHere + arr[i], arr[i]);
+               maxSumSoFar = Math.max(maxSumSoFar, maxEndingHere);
+          }
+          return maxSumSoFar;
+     }
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Sorting.HeapSort;
+import Sorting.QuickSort;
+import Sorting.RadixSort;
+
+/*
+ * Sorting a column of int keys that lives in a direct buffer.
+ *
+ * The *InPlace benchmarks sort the buffer itself through the IntBuffer
+ * overloads. The *Copy benchmarks do what callers had to do before: copy
+ * the keys into a fresh int[], sort the array and copy it back. Both start
+ * by restoring the same direct source buffer, so that copy cancels out,
+ * and the GC profiler shows the heap each path needs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g", "-XX:MaxDirectMemorySize=2g" })
+public class OffHeapSortBenchmark {
+     @Param({ "1000000", "100000000" })
+     public int size;
+
+     @Param({ "RANDOM", "DUPLICATES", "SORTED" })
+     public Workload workload;
+
+     private IntBuffer source;
+     private IntBuffer work;
+
+     private final QuickSort quickSort = new QuickSort();
+     private final HeapSort heapSort = new HeapSort();
+     private final RadixSort radixSort = new RadixSort();
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          source = direct(size);
+          source.put(workload.generate(size, 42L)).flip();
+          work = direct(size);
+     }
+
+     private static IntBuffer direct(int n) {
+          return ByteBuffer.allocateDirect(n * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+     }
+
+     private IntBuffer fresh() {
+          work.clear();
+          work.put(source.duplicate()).flip();
+          return work;
+     }
+
+     private static int[] copyIn(IntBuffer buf) {
+          int[] arr = new int[buf.remaining()];
+          buf.duplicate().get(arr);
+          return arr;
+     }
+
+     private static IntBuffer copyOut(int[] arr, IntBuffer buf) {
+          buf.duplicate().put(arr);
+          return buf;
+     }
+
+     @Benchmark
+     public IntBuffer radixSortInPlace() {
+          IntBuffer buf = fresh();
+          radixSort.radixSort(buf);
+          return buf;
+     }
+
+     @Benchmark
+     public IntBuffer radixSortCopy() {
+          IntBuffer buf = fresh();
+          int[] arr = copyIn(buf);
+          radixSort.radixSort(arr);
+          return copyOut(arr, buf);
+     }
+
+     @Benchmark
+     public IntBuffer quickSortInPlace() {
+          IntBuffer buf = fresh();
+          quickSort.quickSort(buf);
+          return buf;
+     }
+
+     @Benchmark
+     public IntBuffer quickSortCopy() {
+          IntBuffer buf = fresh();
+          int[] arr = copyIn(buf);
+          quickSort.quickSort(arr, 0, arr.length - 1);
+          return copyOut(arr, buf);
+     }
+
+     @Benchmark
+     public IntBuffer heapSortInPlace() {
+          IntBuffer buf = fresh();
+          heapSort.heapSort(buf);
+          return buf;
+     }
+
+     @Benchmark
+     public IntBuffer heapSortCopy() {
+          IntBuffer buf = fresh();
+          int[] arr = copyIn(buf);
+          heapSort.heapSort(arr);
+          return copyOut(arr, buf);
+     }
+}
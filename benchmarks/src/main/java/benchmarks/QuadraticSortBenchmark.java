@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Sorting.BubbleSort;
+import Sorting.InsertionSort;
+import Sorting.SelectionSort;
+
+/*
+ * The O(n^2) sorters stop at 1e4 elements; past that a single
+ * invocation takes minutes and tells us nothing new.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadraticSortBenchmark {
+     @Param({ "100", "1000", "10000" })
+     public int size;
+
+     @Param
+     public Workload workload;
+
+     private int[] source;
+     private int[] work;
+
+     private final BubbleSort bubbleSort = new BubbleSort();
+     private final SelectionSort selectionSort = new SelectionSort();
+     private final InsertionSort insertionSort = new InsertionSort();
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          source = workload.generate(size, 42L);
+          work = new int[size];
+     }
+
+     private int[] fresh() {
+          System.arraycopy(source, 0, work, 0, size);
+          return work;
+     }
+
+     @Benchmark
+     public int[] arraysSort() {
+          int[] arr = fresh();
+          Arrays.sort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] bubbleSort() {
+          int[] arr = fresh();
+          bubbleSort.bubbleSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] selectionSort() {
+          int[] arr = fresh();
+          selectionSort.selectionSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] insertionSort() {
+          int[] arr = fresh();
+          insertionSort.insertionSort(arr);
+          return arr;
+     }
+}
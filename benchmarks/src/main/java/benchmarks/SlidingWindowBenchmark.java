@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import MaximumofAllSubarraysofSizeK.BlockWindowAggregator;
+import MaximumofAllSubarraysofSizeK.Solution;
+
+/*
+ * Maximum of every window of k over random ints: the monotonic deque,
+ * which is inherently serial, against the block prefix/suffix aggregator
+ * on the calling thread and on the common pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SlidingWindowBenchmark {
+     @Param({ "1000000", "100000000" })
+     public int size;
+
+     @Param({ "16", "1024", "65536" })
+     public int k;
+
+     private int[] data;
+     private final Solution deque = new Solution();
+     private final BlockWindowAggregator serial = new BlockWindowAggregator(Integer.MAX_VALUE, null);
+     private final BlockWindowAggregator parallel = new BlockWindowAggregator(BlockWindowAggregator.DEFAULT_PARALLEL_THRESHOLD,
+               ForkJoinPool.commonPool());
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          SplittableRandom rnd = new SplittableRandom(42L);
+          data = new int[size];
+          for (int i = 0; i < size; i++) {
+               data[i] = rnd.nextInt();
+          }
+     }
+
+     @Benchmark
+     public int[] deque() {
+          return deque.maxOfSubarrays(data, k);
+     }
+
+     @Benchmark
+     public int[] blockSerial() {
+          return serial.slide(data, k, Math::max);
+     }
+
+     @Benchmark
+     public int[] blockParallel() {
+          return parallel.slide(data, k, Math::max);
+     }
+}
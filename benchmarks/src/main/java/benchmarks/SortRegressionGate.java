@@ -0,0 +1,157 @@
+package benchmarks;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the sorting benchmarks with the GC profiler and compares every
+ * sorter against the arraysSort baseline measured with the same size and
+ * workload. A sorter whose time ratio exceeds its budget fails the run
+ * with exit code 1.
+ *
+ * Budgets are read from sort-budget.properties (or -Dbudget=<file>).
+ * Keys are looked up from most to least specific:
+ *   Class.method.WORKLOAD.size, Class.method.WORKLOAD, Class.method.size, Class.method
+ * Sorters without any budget entry are reported but never fail the run.
+ *
+ * Usage:
+ *   java -cp target/benchmarks.jar benchmarks.SortRegressionGate [jmh options]
+ *   java -Drecord=<file> -cp ... benchmarks.SortRegressionGate   (write observed ratios as new budgets)
+ */
+public class SortRegressionGate {
+     static final String BASELINE = "arraysSort";
+     // recorded budgets leave this much room for run-to-run noise
+     static final double RECORD_HEADROOM = 1.25;
+
+     public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+          CommandLineOptions cmd = new CommandLineOptions(args);
+          OptionsBuilder builder = new OptionsBuilder();
+          builder.parent(cmd);
+          if (cmd.getIncludes().isEmpty()) {
+               builder.include(SortingBenchmark.class.getSimpleName())
+                         .include(QuadraticSortBenchmark.class.getSimpleName());
+          }
+          Options opt = builder
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-sort.json")
+                    .build();
+          Collection<RunResult> results = new Runner(opt).run();
+
+          Map<String, Double> baseline = new HashMap<>();
+          for (RunResult r : results) {
+               if (method(r.getParams()).equals(BASELINE))
+                    baseline.put(group(r.getParams()), r.getPrimaryResult().getScore());
+          }
+
+          Properties budget = loadBudget();
+          Map<String, String> recorded = new TreeMap<>();
+          List<String> violations = new ArrayList<>();
+          System.out.printf("%n%-48s %-14s %10s %14s %8s %8s%n",
+                    "benchmark", "workload", "size", "alloc B/op", "ratio", "budget");
+          for (RunResult r : results) {
+               BenchmarkParams p = r.getParams();
+               if (method(p).equals(BASELINE))
+                    continue;
+               Double base = baseline.get(group(p));
+               if (base == null || base == 0)
+                    continue;
+               double ratio = r.getPrimaryResult().getScore() / base;
+               String key = shortName(p);
+               String workload = p.getParam("workload");
+               String size = p.getParam("size");
+               Double limit = lookup(budget, key, workload, size);
+               System.out.printf("%-48s %-14s %10s %14.0f %8.2f %8s%n",
+                         key, workload, size, allocation(r), ratio, limit == null ? "-" : String.format("%.2f", limit));
+               if (limit != null && ratio > limit)
+                    violations.add(String.format("%s [%s, %s]: %.2fx Arrays.sort, budget %.2fx",
+                              key, workload, size, ratio, limit));
+               recorded.put(key + "." + workload + "." + size, String.format("%.2f", ratio * RECORD_HEADROOM));
+          }
+
+          String record = System.getProperty("record");
+          if (record != null) {
+               Properties out = new Properties();
+               out.putAll(recorded);
+               try (OutputStream os = new FileOutputStream(record)) {
+                    out.store(os, "ratio to Arrays.sort, recorded with " + RECORD_HEADROOM + "x headroom");
+               }
+               System.out.println("\nBudgets recorded to " + record);
+          }
+
+          if (!violations.isEmpty()) {
+               System.out.println("\nRegressions against the Arrays.sort baseline:");
+               for (String v : violations)
+                    System.out.println("  " + v);
+               System.exit(1);
+          }
+          System.out.println("\nAll sorters within budget.");
+     }
+
+     static Double lookup(Properties budget, String key, String workload, String size) {
+          String[] candidates = { key + "." + workload + "." + size, key + "." + workload, key + "." + size, key };
+          for (String c : candidates) {
+               String v = budget.getProperty(c);
+               if (v != null)
+                    return Double.parseDouble(v.trim());
+          }
+          return null;
+     }
+
+     static Properties loadBudget() throws IOException {
+          Properties budget = new Properties();
+          String path = System.getProperty("budget");
+          try (InputStream in = path != null ? new FileInputStream(path)
+                    : SortRegressionGate.class.getResourceAsStream("/sort-budget.properties")) {
+               if (in != null)
+                    budget.load(in);
+          }
+          return budget;
+     }
+
+     static double allocation(RunResult r) {
+          Result<?> alloc = r.getSecondaryResults().get("gc.alloc.rate.norm");
+          return alloc == null ? Double.NaN : alloc.getScore();
+     }
+
+     // benchmarks.SortingBenchmark.mergeSort -> mergeSort
+     static String method(BenchmarkParams p) {
+          String name = p.getBenchmark();
+          return name.substring(name.lastIndexOf('.') + 1);
+     }
+
+     // benchmarks.SortingBenchmark.mergeSort -> SortingBenchmark.mergeSort
+     static String shortName(BenchmarkParams p) {
+          String name = p.getBenchmark();
+          String owner = name.substring(0, name.lastIndexOf('.'));
+          return owner.substring(owner.lastIndexOf('.') + 1) + "." + method(p);
+     }
+
+     // results are only comparable within the same class, workload and size
+     static String group(BenchmarkParams p) {
+          String name = shortName(p);
+          return name.substring(0, name.indexOf('.')) + "/" + p.getParam("workload") + "/" + p.getParam("size");
+     }
+}
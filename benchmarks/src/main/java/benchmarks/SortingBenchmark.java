@@ -0,0 +1,191 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Sorting.BucketSort;
+import Sorting.CountingSort;
+import Sorting.HeapSort;
+import Sorting.MergeSort;
+import Sorting.NaturalMergeSort;
+import Sorting.QuickSort;
+import Sorting.RadixSort;
+import Sorting.ShellSort;
+import Sorting.Sorter;
+
+/*
+ * O(n log n) and linear-time sorters from 1e2 up to 1e8 elements.
+ * Every benchmark copies the same source into a preallocated work array
+ * before sorting, so the copy cancels out against the Arrays.sort baseline
+ * and the GC profiler only sees what the sorter itself allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g", "-Xss64m" })
+public class SortingBenchmark {
+     @Param({ "100", "10000", "1000000", "100000000" })
+     public int size;
+
+     @Param
+     public Workload workload;
+
+     private int[] source;
+     private int[] work;
+     private int bucketSize;
+
+     private final MergeSort mergeSort = new MergeSort();
+     private final NaturalMergeSort naturalMergeSort = new NaturalMergeSort();
+     private final QuickSort quickSort = new QuickSort();
+     private final HeapSort heapSort = new HeapSort();
+     private final ShellSort shellSort = new ShellSort();
+     private final CountingSort countingSort = new CountingSort();
+     private final RadixSort radixSort = new RadixSort();
+     private final BucketSort bucketSort = new BucketSort();
+     private final Sorter sorter = new Sorter();
+
+     @Setup(Level.Trial)
+     public void setUp() {
+          source = workload.generate(size, 42L);
+          work = new int[size];
+          int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+          for (int v : source) {
+               min = Math.min(min, v);
+               max = Math.max(max, v);
+          }
+          // aim for roughly 8 elements per bucket
+          bucketSize = (int) Math.max(1L, ((long) max - min) / Math.max(1, size / 8));
+     }
+
+     private int[] fresh() {
+          System.arraycopy(source, 0, work, 0, size);
+          return work;
+     }
+
+     @Benchmark
+     public int[] arraysSort() {
+          int[] arr = fresh();
+          Arrays.sort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] sorter() {
+          int[] arr = fresh();
+          sorter.sort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] mergeSort() {
+          int[] arr = fresh();
+          mergeSort.mergeSort(arr, 0, arr.length - 1);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] parallelMergeSort() {
+          int[] arr = fresh();
+          mergeSort.parallelMergeSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] naturalMergeSort() {
+          int[] arr = fresh();
+          naturalMergeSort.naturalMergeSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] quickSort() {
+          int[] arr = fresh();
+          quickSort.quickSort(arr, 0, arr.length - 1);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] parallelQuickSort() {
+          int[] arr = fresh();
+          quickSort.parallelQuickSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] heapSort() {
+          int[] arr = fresh();
+          heapSort.heapSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] shellSort() {
+          int[] arr = fresh();
+          shellSort.shellSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] countingSort() {
+          int[] arr = fresh();
+          countingSort.countingSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] parallelCountingSort() {
+          int[] arr = fresh();
+          countingSort.parallelCountingSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] radixSort() {
+          int[] arr = fresh();
+          radixSort.radixSort(arr, arr.length);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] parallelRadixSort() {
+          int[] arr = fresh();
+          radixSort.parallelRadixSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] bucketSort() {
+          int[] arr = fresh();
+          bucketSort.bucketSort(arr, bucketSize);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] adaptiveBucketSort() {
+          int[] arr = fresh();
+          bucketSort.bucketSort(arr);
+          return arr;
+     }
+
+     @Benchmark
+     public int[] parallelBucketSort() {
+          int[] arr = fresh();
+          bucketSort.parallelBucketSort(arr);
+          return arr;
+     }
+}
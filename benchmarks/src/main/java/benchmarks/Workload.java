@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+/*
+ * Input shapes the sorters are measured on. Every shape produces
+ * non-negative keys so RadixSort and CountingSort can run on all of them.
+ */
+public enum Workload {
+     // uniform keys over a range a little wider than n
+     RANDOM {
+          void fill(int[] arr, SplittableRandom rnd) {
+               int bound = Math.max(arr.length, 1 << 16) * 4;
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = rnd.nextInt(bound);
+          }
+     },
+     SORTED {
+          void fill(int[] arr, SplittableRandom rnd) {
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = i;
+          }
+     },
+     REVERSE {
+          void fill(int[] arr, SplittableRandom rnd) {
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = arr.length - i;
+          }
+     },
+     // ~16 distinct keys scattered over a wide range
+     DUPLICATES {
+          void fill(int[] arr, SplittableRandom rnd) {
+               int[] keys = new int[16];
+               for (int i = 0; i < keys.length; i++)
+                    keys[i] = rnd.nextInt(1 << 24);
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = keys[rnd.nextInt(keys.length)];
+          }
+     },
+     // ascending to the middle, then descending
+     ORGAN_PIPE {
+          void fill(int[] arr, SplittableRandom rnd) {
+               int half = arr.length / 2;
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = i <= half ? i : arr.length - i;
+          }
+     },
+     // large keys packed into a window of 1000 values
+     NARROW_RANGE {
+          void fill(int[] arr, SplittableRandom rnd) {
+               for (int i = 0; i < arr.length; i++)
+                    arr[i] = 1_000_000 + rnd.nextInt(1000);
+          }
+     };
+
+     abstract void fill(int[] arr, SplittableRandom rnd);
+
+     public int[] generate(int n, long seed) {
+          int[] arr = new int[n];
+          fill(arr, new SplittableRandom(seed));
+          return arr;
+     }
+}